@@ -4,6 +4,7 @@ import client.utility.UserHandler;
 import common.exceptions.ConnectionErrorException;
 import common.exceptions.NotInDeclaredLimitsException;
 import common.exceptions.WrongAmountOfArgumentsException;
+import common.interaction.WireFormat;
 import common.utility.Outputter;
 
 import java.io.IOException;
@@ -19,14 +20,16 @@ public class App {
     private static final int MAX_RECONNECTION_ATTEMPTS = 6;
     private static String host;
     private static int port;
+    private static WireFormat wireFormat = WireFormat.BINARY;
 
 
     private static boolean initializeConnectionAddress(String[] hostAndPortArgs) {
         try {
-            if (hostAndPortArgs.length != 2) throw new WrongAmountOfArgumentsException();
+            if (hostAndPortArgs.length != 2 && hostAndPortArgs.length != 3) throw new WrongAmountOfArgumentsException();
             host = hostAndPortArgs[0];
             port = Integer.parseInt(hostAndPortArgs[1]);
             if (port < 0) throw new NotInDeclaredLimitsException();
+            if (hostAndPortArgs.length == 3) wireFormat = WireFormat.valueOf(hostAndPortArgs[2].toUpperCase());
             return true;
         } catch (WrongAmountOfArgumentsException exception) {
             String jarName = new java.io.File(App.class.getProtectionDomain()
@@ -34,9 +37,11 @@ public class App {
                     .getLocation()
                     .getPath())
                     .getName();
-            Outputter.printLn("Usage: 'java -jar " + jarName + " <host> <port>'");
+            Outputter.printLn("Usage: 'java -jar " + jarName + " <host> <port> [wire format]'");
         } catch (NumberFormatException exception) {
             Outputter.printError("The port must be represented by a number!");
+        } catch (IllegalArgumentException exception) {
+            Outputter.printError("The wire format must be one of: " + WireFormat.nameList());
         } catch (NotInDeclaredLimitsException exception) {
             Outputter.printError("The port cannot be negative!");
         }
@@ -48,7 +53,7 @@ public class App {
         if (!initializeConnectionAddress(args)) return;
         Scanner userScanner = new Scanner(System.in);
         UserHandler userHandler = new UserHandler(userScanner);
-        Client client = new Client(userHandler, port, RECONNECTION_TIMEOUT, MAX_RECONNECTION_ATTEMPTS, host);
+        Client client = new Client(userHandler, port, RECONNECTION_TIMEOUT, MAX_RECONNECTION_ATTEMPTS, host, wireFormat);
         client.run();
         userScanner.close();
     }
@@ -3,15 +3,48 @@ package client;
 import client.utility.UserHandler;
 import common.exceptions.ConnectionErrorException;
 import common.exceptions.NotInDeclaredLimitsException;
+import common.interaction.BatchRequest;
+import common.interaction.BatchResponse;
+import common.interaction.Frames;
+import common.interaction.Handshake;
+import common.interaction.MessageCodec;
 import common.interaction.Request;
 import common.interaction.Response;
+import common.interaction.ResponseResult;
+import common.interaction.WireFormat;
 import common.utility.Outputter;
 
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class Client {
+    /**
+     * Number of script requests that may be sent before their responses are received.
+     */
+    private static final int PIPELINE_WINDOW = 32;
+    /**
+     * Number of script commands sent together in one batch request.
+     */
+    private static final int BATCH_SIZE = 256;
+    /**
+     * Number of times a request rejected by a busy server is sent again.
+     */
+    private static final int MAX_BUSY_RETRIES = 8;
+    private static final long BUSY_BACKOFF_MILLIS = 50;
+    private static final long MAX_BUSY_BACKOFF_MILLIS = 2000;
+    /**
+     * Time in milliseconds without requests after which a ping is sent, well below the idle timeout of the server.
+     */
+    private static final long PING_INTERVAL = 20 * 1000;
     private final String host;
     private final int port;
     private final int reconnectionTimeout;
@@ -19,10 +52,27 @@ public class Client {
     private final int maxReconnectionAttempts;
     private SocketChannel socketChannel;
     private final UserHandler userHandler;
-    private ObjectOutputStream serverWriter;
-    private ObjectInputStream serverReader;
+    private final WireFormat wireFormat;
+    private MessageCodec codec;
+    private DataOutputStream serverWriter;
+    private DataInputStream serverReader;
+    private long nextRequestId = 1;
+    private final Map<Long, Request> pendingRequests = new LinkedHashMap<>();
+    private final Map<Long, Response> earlyResponses = new HashMap<>();
+    private final Map<Long, StringBuilder> earlyBodies = new HashMap<>();
+    private final List<Request> scriptBatch = new ArrayList<>();
+    private int busyRetries;
+    private final Object writeLock = new Object();
+    private volatile long lastWriteTime = System.nanoTime();
+    private ScheduledExecutorService keepAlive;
 
     public Client(UserHandler userHandler,int port, int reconnectionTimeout, int maxReconnectionAttempts, String host) {
+        this(userHandler, port, reconnectionTimeout, maxReconnectionAttempts, host, WireFormat.BINARY);
+    }
+
+    public Client(UserHandler userHandler,int port, int reconnectionTimeout, int maxReconnectionAttempts, String host,
+                  WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
         this.host = host;
         this.port = port;
         this.reconnectionTimeout = reconnectionTimeout;
@@ -31,6 +81,7 @@ public class Client {
     }
 
     public void run() {
+        startKeepAlive();
         try {
             boolean processingStatus = true;
             while (processingStatus) {
@@ -61,16 +112,69 @@ public class Client {
             Outputter.printError("The client cannot be started!");
         } catch (IOException exception) {
             Outputter.printError("An error occurred while trying to terminate the connection with the server!");
+        } finally {
+            keepAlive.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts the thread that pings the server while the user is not sending requests,
+     * so the server does not take the connection for a dead one.
+     */
+    private void startKeepAlive() {
+        keepAlive = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "keep-alive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        keepAlive.scheduleWithFixedDelay(this::pingIfIdle, PING_INTERVAL, PING_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private void pingIfIdle() {
+        synchronized (writeLock) {
+            if (codec == null || System.nanoTime() - lastWriteTime < TimeUnit.MILLISECONDS.toNanos(PING_INTERVAL)) return;
+            try {
+                writeRequest(Request.ping());
+            } catch (IOException exception) {
+                // The broken connection is reported by the next request.
+            }
+        }
+    }
+
+    /**
+     * Writes a request frame, shared by the main thread and the keep-alive thread.
+     *
+     * @param request Request to write.
+     */
+    private void writeRequest(Request request) throws IOException {
+        synchronized (writeLock) {
+            Frames.writeFrame(serverWriter, codec.encodeRequest(request));
+            lastWriteTime = System.nanoTime();
         }
     }
+
+    /**
+     * Connects to the server and agrees on the connection settings.
+     * Holds the write lock, so no ping is sent before the handshake.
+     */
     private void connectToServer() throws ConnectionErrorException, NotInDeclaredLimitsException {
+        synchronized (writeLock) {
+            openConnection();
+        }
+    }
+
+    private void openConnection() throws ConnectionErrorException, NotInDeclaredLimitsException {
         try {
             if (reconnectionAttempts >= 1) Outputter.printLn("Reconnecting to the server...");
             socketChannel = SocketChannel.open(new InetSocketAddress(host, port));
             Outputter.printLn("The connection to the server has been successfully established.");
             Outputter.printLn("Waiting for permission to exchange data...");
-            serverWriter = new ObjectOutputStream(socketChannel.socket().getOutputStream());
-            serverReader = new ObjectInputStream(socketChannel.socket().getInputStream());
+            serverWriter = new DataOutputStream(new BufferedOutputStream(socketChannel.socket().getOutputStream()));
+            serverReader = new DataInputStream(new BufferedInputStream(socketChannel.socket().getInputStream()));
+            Frames.writeFrame(serverWriter, new Handshake(wireFormat, true).encode());
+            Handshake serverHandshake = Handshake.decode(Frames.readFrame(serverReader));
+            if (serverHandshake.getWireFormat() == null) throw new StreamCorruptedException();
+            codec = serverHandshake.getCodec();
             Outputter.printLn("Permission to exchange data has been received.");
         } catch (IllegalArgumentException exception) {
             Outputter.printError("The server address is entered incorrectly!");
@@ -81,17 +185,30 @@ public class Client {
         }
     }
 
+    /**
+     * Reads commands and sends them to the server until the user exits.
+     * The exit command is not sent, the commands batched before it are sent and answered first.
+     *
+     * @return False, the client has nothing more to send.
+     */
     private boolean processRequestToServer() {
         Request requestToServer = null;
-        Response serverResponse = null;
+        ResponseResult responseResult = null;
         do {
             try {
-                requestToServer = serverResponse != null ? userHandler.handle(serverResponse.getResponseResult()) :
-                        userHandler.handle(null);
-                if (requestToServer.isEmpty()) continue;
-                serverWriter.writeObject(requestToServer);
-                serverResponse = (Response) serverReader.readObject();
-                Outputter.print(serverResponse.getResponseBody());
+                requestToServer = userHandler.handle(responseResult);
+                responseResult = null;
+                boolean exiting = requestToServer.getCommandName().equals("exit");
+                boolean scriptMode = !exiting && userHandler.isScriptMode();
+                if (!requestToServer.isEmpty() && !exiting) {
+                    if (scriptMode || !scriptBatch.isEmpty()) scriptBatch.add(requestToServer);
+                    else sendRequest(requestToServer);
+                }
+                if (scriptBatch.size() >= BATCH_SIZE || !scriptMode && !scriptBatch.isEmpty()) {
+                    sendRequest(new BatchRequest(scriptBatch, true));
+                    scriptBatch.clear();
+                }
+                responseResult = receiveResponses(scriptMode ? PIPELINE_WINDOW - 1 : 0);
             } catch (InvalidClassException | NotSerializableException exception) {
                 Outputter.printError("An error occurred while sending data to the server!");
                 Outputter.printError(exception);
@@ -100,6 +217,11 @@ public class Client {
                 Outputter.printError("An error occurred while reading the received data!");
             } catch (IOException exception) {
                 Outputter.printError("The connection to the server is broken!");
+                scriptBatch.clear();
+                pendingRequests.clear();
+                earlyResponses.clear();
+                earlyBodies.clear();
+                busyRetries = 0;
                 try {
                     reconnectionAttempts++;
                     connectToServer();
@@ -113,5 +235,125 @@ public class Client {
         return false;
     }
 
+    /**
+     * Sends a request without waiting for the response.
+     *
+     * @param request Request to send.
+     */
+    private void sendRequest(Request request) throws IOException {
+        request.setRequestId(nextRequestId++);
+        writeRequest(request);
+        pendingRequests.put(request.getRequestId(), request);
+    }
 
+    /**
+     * Prints the body of a response, or the bodies of all the responses of a batch.
+     *
+     * @param serverResponse Response to print.
+     */
+    private void printResponse(Response serverResponse) {
+        if (serverResponse instanceof BatchResponse) {
+            for (Response response : ((BatchResponse) serverResponse).getResponses())
+                Outputter.print(response.getResponseBody());
+        } else Outputter.print(serverResponse.getResponseBody());
+    }
+
+    /**
+     * Reads responses until no more than the given number of requests wait for an answer.
+     * Responses are printed in the order the requests were sent, whatever order they arrive in.
+     * Chunks of a streamed response are printed as soon as all the earlier responses have been printed.
+     * When a busy server rejects a request, it rejects every request sent after it too;
+     * they are all sent again in order after a growing delay.
+     * If the server stays busy, they are dropped and the connection is opened anew.
+     *
+     * @param maxPending Number of requests that may stay unanswered.
+     * @return First unsuccessful result among the received responses, OK if all succeeded, null if none was received.
+     */
+    private ResponseResult receiveResponses(int maxPending) throws IOException, ClassNotFoundException {
+        ResponseResult responseResult = null;
+        while (pendingRequests.size() > maxPending) {
+            long expectedId = pendingRequests.keySet().iterator().next();
+            StringBuilder earlyBody = earlyBodies.remove(expectedId);
+            if (earlyBody != null) Outputter.print(earlyBody);
+            Response serverResponse = earlyResponses.remove(expectedId);
+            if (serverResponse == null) {
+                serverResponse = codec.decodeResponse(Frames.readFrame(serverReader));
+                if (serverResponse.getRequestId() == Request.PING_ID) continue;
+                if (serverResponse.getRequestId() != expectedId) {
+                    if (serverResponse.isPartial()) {
+                        earlyBodies.computeIfAbsent(serverResponse.getRequestId(), id -> new StringBuilder())
+                                .append(serverResponse.getResponseBody());
+                    } else earlyResponses.put(serverResponse.getRequestId(), serverResponse);
+                    continue;
+                }
+                if (serverResponse.isPartial()) {
+                    Outputter.print(serverResponse.getResponseBody());
+                    continue;
+                }
+            }
+            if (serverResponse.getResponseResult() == ResponseResult.BUSY) {
+                receiveRejectedResponses();
+                if (busyRetries < MAX_BUSY_RETRIES) {
+                    waitWhileBusy(busyRetries++);
+                    for (Request request : pendingRequests.values()) writeRequest(request);
+                    continue;
+                }
+                busyRetries = 0;
+                Outputter.print(serverResponse.getResponseBody());
+                pendingRequests.clear();
+                scriptBatch.clear();
+                reconnect();
+                return ResponseResult.BUSY;
+            }
+            busyRetries = 0;
+            pendingRequests.remove(expectedId);
+            printResponse(serverResponse);
+            if (responseResult == null || responseResult == ResponseResult.OK)
+                responseResult = serverResponse.getResponseResult();
+        }
+        return responseResult;
+    }
+
+    /**
+     * Receives the rejections of the requests sent after the first rejected one and forgets them,
+     * so the responses read later belong to the requests sent again.
+     */
+    private void receiveRejectedResponses() throws IOException, ClassNotFoundException {
+        List<Long> rejectedIds = new ArrayList<>(pendingRequests.keySet());
+        for (Long rejectedId : rejectedIds.subList(1, rejectedIds.size())) {
+            while (!earlyResponses.containsKey(rejectedId)) {
+                Response serverResponse = codec.decodeResponse(Frames.readFrame(serverReader));
+                if (serverResponse.getRequestId() != Request.PING_ID)
+                    earlyResponses.put(serverResponse.getRequestId(), serverResponse);
+            }
+            earlyResponses.remove(rejectedId);
+            earlyBodies.remove(rejectedId);
+        }
+    }
+
+    /**
+     * Opens a new connection, the server forgets the requests rejected on the old one.
+     */
+    private void reconnect() throws IOException {
+        socketChannel.close();
+        try {
+            connectToServer();
+        } catch (ConnectionErrorException | NotInDeclaredLimitsException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    /**
+     * Waits before a rejected request is sent again, twice as long after every rejection in a row.
+     *
+     * @param retry Number of the retry, starting from zero.
+     */
+    private void waitWhileBusy(int retry) throws InterruptedIOException {
+        try {
+            Thread.sleep(Math.min(BUSY_BACKOFF_MILLIS << retry, MAX_BUSY_BACKOFF_MILLIS));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
 }
@@ -6,5 +6,6 @@ public enum ProcessingResult {
     OBJECT,
     CHAPTER,
     UPDATE_OBJECT,
-    SCRIPT
+    SCRIPT,
+    EXIT
 }
@@ -34,13 +34,10 @@ public class UserHandler {
             do{
                 try{
                     if(fileMode() && (serverResponseResult == ResponseResult.ERROR ||
+                            serverResponseResult == ResponseResult.BUSY ||
                             serverResponseResult == ResponseResult.SERVER_EXIT))
                         throw new IncorrectInputInScriptException();
-                    while(fileMode() && !userScanner.hasNextLine()){
-                        userScanner.close();
-                        userScanner = scannerStack.pop();
-                        Outputter.printLn("Going back to the script '" + scriptStack.pop().getName() + "'...");
-                    }
+                    closeFinishedScripts();
                     if(fileMode()){
                         userInput = userScanner.nextLine();
                         if(!userInput.isEmpty()){
@@ -116,7 +113,8 @@ public class UserHandler {
                     if (!commandArgument.isEmpty()) throw new CommandUsageException("{element}");
                     return ProcessingResult.OBJECT;
                 case "exit":
-                    System.exit(0);
+                    if (!commandArgument.isEmpty()) throw new CommandUsageException();
+                    return ProcessingResult.EXIT;
                 case "help":
                 case "info":
                 case "print_unique_heart_count":
@@ -176,6 +174,24 @@ public class UserHandler {
     }
 
 
+    /**
+     * Checks whether the next command is going to be read from a script.
+     *
+     * @return True if the next command comes from a script.
+     */
+    public boolean isScriptMode() {
+        closeFinishedScripts();
+        return fileMode();
+    }
+
+    private void closeFinishedScripts() {
+        while(fileMode() && !userScanner.hasNextLine()){
+            userScanner.close();
+            userScanner = scannerStack.pop();
+            Outputter.printLn("Going back to the script '" + scriptStack.pop().getName() + "'...");
+        }
+    }
+
     private boolean fileMode() {
         return !scannerStack.isEmpty();
     }
@@ -45,6 +45,10 @@ public class Chapter implements Serializable {
 
     @Override
     public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
         if (obj == null) {
             return false;
         }
@@ -58,7 +62,12 @@ public class Chapter implements Serializable {
             return false;
         }
 
-        return this.world.equals(other.world);
+        return Objects.equals(this.world, other.world);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, world);
     }
 
 }
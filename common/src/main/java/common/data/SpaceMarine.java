@@ -1,16 +1,29 @@
 package common.data;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
 import java.time.ZonedDateTime;
 
 /**
  * Space marine class.
+ * Id, health and height are kept as primitives, a bit mask tells which of them are set.
+ * The text of a space marine is built once and kept until one of its fields is set again.
  */
 public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
+    private static final byte HAS_ID = 1;
+    private static final byte HAS_HEALTH = 1 << 1;
+    private static final byte HAS_HEIGHT = 1 << 2;
+
+    /**
+     * Which of id, health and height are set.
+     */
+    private byte presentFields;
     /**
      * Identification number of a space marine.
      */
-    private Long id;
+    private long id;
     /**
      * Name of a space marine.
      */
@@ -28,7 +41,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      * Health value of a space marine.
      * Must be more than 0.
      */
-    private Integer health; //Поле не может быть null, Значение поля должно быть больше 0
+    private int health; //Поле не может быть null, Значение поля должно быть больше 0
     /**
      * Heart count value of a space marine.
      * Must be more than 0, max value is 3.
@@ -37,7 +50,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
     /**
      * Height value of a space marine
      */
-    private Long height; //Поле может быть null
+    private long height; //Поле может быть null
     /**
      * Melee weapon of a space marine.
      * Must be equal to 3 values of the enum class.
@@ -47,13 +60,19 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      * Chapter of a space marine.
      */
     private Chapter chapter; //Поле не может быть null
+    /**
+     * Text of the space marine, null until it is asked for or after a field has changed.
+     */
+    private transient volatile String text;
 
     /**
      * Id setter.
      * @param id Id
      */
     public void setId(Long id) {
-        this.id = id;
+        this.id = id == null ? 0 : id;
+        setPresent(HAS_ID, id != null);
+        text = null;
     }
 
     /**
@@ -62,6 +81,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      */
     public void setName(String name) {
         this.name = name;
+        text = null;
     }
 
     /**
@@ -70,6 +90,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      */
     public void setCoordinates(Coordinates coordinates) {
         this.coordinates = coordinates;
+        text = null;
     }
 
     /**
@@ -78,6 +99,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      */
     public void setCreationDate(ZonedDateTime creationDate) {
         this.creationDate = creationDate;
+        text = null;
     }
 
     /**
@@ -85,7 +107,9 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      * @param health Health
      */
     public void setHealth(Integer health) {
-        this.health = health;
+        this.health = health == null ? 0 : health;
+        setPresent(HAS_HEALTH, health != null);
+        text = null;
     }
 
     /**
@@ -94,6 +118,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      */
     public void setHeartCount(long heartCount) {
         this.heartCount = heartCount;
+        text = null;
     }
 
     /**
@@ -101,7 +126,9 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      * @param height Height
      */
     public void setHeight(Long height) {
-        this.height = height;
+        this.height = height == null ? 0 : height;
+        setPresent(HAS_HEIGHT, height != null);
+        text = null;
     }
 
     /**
@@ -110,6 +137,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      */
     public void setMeleeWeapon(MeleeWeapon meleeWeapon) {
         this.meleeWeapon = meleeWeapon;
+        text = null;
     }
 
     /**
@@ -118,6 +146,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      */
     public void setChapter(Chapter chapter) {
         this.chapter = chapter;
+        text = null;
     }
 
     /**
@@ -133,15 +162,16 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      * @param chapter Chapter
      */
     public SpaceMarine(Long id, String name, Coordinates coordinates, ZonedDateTime creationDate, Integer health, long heartCount, Long height, MeleeWeapon meleeWeapon, Chapter chapter) {
-        this.id = id;
+        setId(id);
         this.name = name;
         this.coordinates = coordinates;
         this.creationDate = ZonedDateTime.now();
-        this.health = health;
+        setHealth(health);
         this.heartCount = heartCount;
-        this.height = height;
+        setHeight(height);
         this.meleeWeapon = meleeWeapon;
         this.chapter = chapter;
+        text = null;
     }
 
     /**
@@ -156,7 +186,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      * @return Id of a space marine.
      */
     public Long getId() {
-        return id;
+        return isPresent(HAS_ID) ? id : null;
     }
 
     /**
@@ -188,7 +218,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      * @return Health.
      */
     public Integer getHealth() {
-        return health;
+        return isPresent(HAS_HEALTH) ? health : null;
     }
 
     /**
@@ -204,7 +234,7 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
      * @return Height.
      */
     public Long getHeight() {
-        return height;
+        return isPresent(HAS_HEIGHT) ? height : null;
     }
 
     /**
@@ -225,25 +255,97 @@ public class SpaceMarine implements Comparable<SpaceMarine>, Serializable {
 
 
 
+    /**
+     * Builds the text of the space marine once and returns the same text until a field is set again.
+     * @return Fields of the space marine, one per line.
+     */
     @Override
     public String toString() {
-        return String.format("Id: %d\nName: %s\nCoordinates: {x: %f y: %f}\nCreation Time: %s\nHealth: %d\nHeart count: %d\nHeight: %d\nMelee weapon: %s\nChapter: name: %s\n         world: %s",
-                getId(),
-                getName(),
-                getCoordinates().getX(),
-                getCoordinates().getY(),
-                getCreationDate(),
-                getHealth(),
-                getHeartCount(),
-                getHeight(),
-                getMeleeWeapon(),
-                getChapter().getName(),
-                getChapter().getWorld());
+        String result = text;
+        if (result == null) {
+            StringBuilder builder = new StringBuilder(256);
+            render(builder);
+            result = builder.toString();
+            text = result;
+        }
+        return result;
+    }
+
+    /**
+     * Appends the text of the space marine to a buffer.
+     * The first time the text is built right in the buffer and kept, later it is copied from the kept text.
+     * @param builder Buffer to append to.
+     */
+    public void appendTo(StringBuilder builder) {
+        String result = text;
+        if (result != null) {
+            builder.append(result);
+            return;
+        }
+        int start = builder.length();
+        render(builder);
+        text = builder.substring(start);
+    }
+
+    private void render(StringBuilder builder) {
+        builder.append("Id: ").append(getId());
+        builder.append("\nName: ").append(getName());
+        builder.append("\nCoordinates: {x: ");
+        appendFixed(builder, getCoordinates().getX());
+        builder.append(" y: ");
+        appendFixed(builder, getCoordinates().getY());
+        builder.append("}\nCreation Time: ").append(getCreationDate());
+        builder.append("\nHealth: ").append(getHealth());
+        builder.append("\nHeart count: ").append(getHeartCount());
+        builder.append("\nHeight: ").append(getHeight());
+        builder.append("\nMelee weapon: ").append(getMeleeWeapon());
+        builder.append("\nChapter: name: ").append(getChapter().getName());
+        builder.append("\n         world: ").append(getChapter().getWorld());
+    }
 
+    /**
+     * Appends a number the way the %f format does: six digits after the separator of the default locale.
+     */
+    private static void appendFixed(StringBuilder builder, double value) {
+        if (!Double.isFinite(value)) {
+            builder.append(String.format("%f", value));
+            return;
+        }
+        String digits = new BigDecimal(Double.toString(value)).setScale(6, RoundingMode.HALF_UP).toPlainString();
+        if (Math.copySign(1.0, value) < 0 && digits.charAt(0) != '-') builder.append('-');
+        char separator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+        builder.append(separator == '.' ? digits : digits.replace('.', separator));
     }
 
+    /**
+     * Space marines are compared by height, a space marine without height is the lowest.
+     * @param o Space marine to compare with.
+     * @return Negative, zero or positive as this space marine is lower, as high as or higher than the other.
+     */
     @Override
     public int compareTo(SpaceMarine o) {
-        return (int) (this.height - o.height);
+        boolean hasHeight = isPresent(HAS_HEIGHT);
+        if (hasHeight != o.isPresent(HAS_HEIGHT)) return hasHeight ? 1 : -1;
+        return hasHeight ? Long.compare(height, o.height) : 0;
+    }
+
+    /**
+     * Compares heights the way space marines are compared, null is lower than any height.
+     * @param height1 First height.
+     * @param height2 Second height.
+     * @return Negative, zero or positive as the first height is lower, equal or higher.
+     */
+    public static int compareHeights(Long height1, Long height2) {
+        if (height1 == null) return height2 == null ? 0 : -1;
+        if (height2 == null) return 1;
+        return Long.compare(height1, height2);
+    }
+
+    private boolean isPresent(byte field) {
+        return (presentFields & field) != 0;
+    }
+
+    private void setPresent(byte field, boolean present) {
+        presentFields = (byte) (present ? presentFields | field : presentFields & ~field);
     }
 }
@@ -0,0 +1,7 @@
+package common.exceptions;
+
+/**
+ * Is thrown if new ids can not be reserved in the id file
+ */
+public class IdReservationException extends Exception {
+}
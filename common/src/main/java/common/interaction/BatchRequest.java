@@ -0,0 +1,55 @@
+package common.interaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request that carries an ordered list of requests to be executed in one round trip.
+ */
+public class BatchRequest extends Request {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Command name of every batch request.
+     */
+    public static final String BATCH_COMMAND = "batch";
+
+    private final ArrayList<Request> requests;
+    private final boolean stopOnError;
+
+    /**
+     * Batch request constructor.
+     *
+     * @param requests Requests in the order they must be executed.
+     * @param stopOnError True if the requests after the first failed one must not be executed.
+     */
+    public BatchRequest(List<Request> requests, boolean stopOnError) {
+        super(BATCH_COMMAND, null);
+        this.requests = new ArrayList<>(requests);
+        this.stopOnError = stopOnError;
+    }
+
+    /**
+     * @return Requests in the order they must be executed.
+     */
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return True if the requests after the first failed one must not be executed.
+     */
+    public boolean isStopOnError() {
+        return stopOnError;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchRequest[" + getRequestId() + ", " + requests.size() + " requests]";
+    }
+}
@@ -0,0 +1,44 @@
+package common.interaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response to a batch request with one response for every executed request.
+ */
+public class BatchResponse extends Response {
+    private static final long serialVersionUID = 1L;
+
+    private final ArrayList<Response> responses;
+
+    /**
+     * Batch response constructor.
+     * The result of the batch is the first unsuccessful result of its responses, OK if there is none.
+     *
+     * @param requestId Id of the batch request.
+     * @param responses Responses in the order the requests were executed.
+     */
+    public BatchResponse(long requestId, List<Response> responses) {
+        super(requestId, combinedResult(responses), "");
+        this.responses = new ArrayList<>(responses);
+    }
+
+    private static ResponseResult combinedResult(List<Response> responses) {
+        for (Response response : responses) {
+            if (response.getResponseResult() != ResponseResult.OK) return response.getResponseResult();
+        }
+        return ResponseResult.OK;
+    }
+
+    /**
+     * @return Responses in the order the requests were executed.
+     */
+    public List<Response> getResponses() {
+        return responses;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResponse[" + getRequestId() + ", " + getResponseResult() + ", " + responses.size() + " responses]";
+    }
+}
@@ -0,0 +1,268 @@
+package common.interaction;
+
+import common.data.Chapter;
+import common.data.Coordinates;
+import common.data.MeleeWeapon;
+import common.data.SpaceMarine;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary codec with hand-written encoding of every message field.
+ * Command arguments may be null, String, SpaceMarine or Chapter.
+ * Every message starts with its kind, a single request or response or a batch of them.
+ */
+public class BinaryCodec implements MessageCodec {
+    private static final byte SINGLE_MESSAGE = 0;
+    private static final byte BATCH_MESSAGE = 1;
+
+    private static final byte NULL_ARGUMENT = 0;
+    private static final byte STRING_ARGUMENT = 1;
+    private static final byte SPACE_MARINE_ARGUMENT = 2;
+    private static final byte CHAPTER_ARGUMENT = 3;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_NAME = 1 << 1;
+    private static final int HAS_COORDINATES = 1 << 2;
+    private static final int HAS_CREATION_DATE = 1 << 3;
+    private static final int HAS_HEALTH = 1 << 4;
+    private static final int HAS_HEIGHT = 1 << 5;
+    private static final int HAS_MELEE_WEAPON = 1 << 6;
+    private static final int HAS_CHAPTER = 1 << 7;
+
+    private static final MeleeWeapon[] MELEE_WEAPONS = MeleeWeapon.values();
+    private static final ResponseResult[] RESPONSE_RESULTS = ResponseResult.values();
+
+    @Override
+    public byte[] encodeRequest(Request request) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (request instanceof BatchRequest) {
+            BatchRequest batchRequest = (BatchRequest) request;
+            out.writeByte(BATCH_MESSAGE);
+            out.writeLong(batchRequest.getRequestId());
+            out.writeBoolean(batchRequest.isStopOnError());
+            out.writeInt(batchRequest.getRequests().size());
+            for (Request entry : batchRequest.getRequests()) writeRequest(out, entry);
+        } else {
+            out.writeByte(SINGLE_MESSAGE);
+            writeRequest(out, request);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Request decodeRequest(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        try {
+            if (readMessageKind(in) == SINGLE_MESSAGE) return readRequest(in);
+            long requestId = in.readLong();
+            boolean stopOnError = in.readBoolean();
+            int size = readCount(in);
+            List<Request> requests = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) requests.add(readRequest(in));
+            BatchRequest batchRequest = new BatchRequest(requests, stopOnError);
+            batchRequest.setRequestId(requestId);
+            return batchRequest;
+        } catch (EOFException exception) {
+            throw new StreamCorruptedException("Truncated request");
+        }
+    }
+
+    @Override
+    public byte[] encodeResponse(Response response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (response instanceof BatchResponse) {
+            BatchResponse batchResponse = (BatchResponse) response;
+            out.writeByte(BATCH_MESSAGE);
+            out.writeLong(batchResponse.getRequestId());
+            out.writeInt(batchResponse.getResponses().size());
+            for (Response entry : batchResponse.getResponses()) writeResponse(out, entry);
+        } else {
+            out.writeByte(SINGLE_MESSAGE);
+            writeResponse(out, response);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Response decodeResponse(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        try {
+            if (readMessageKind(in) == SINGLE_MESSAGE) return readResponse(in);
+            long requestId = in.readLong();
+            int size = readCount(in);
+            List<Response> responses = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) responses.add(readResponse(in));
+            return new BatchResponse(requestId, responses);
+        } catch (EOFException exception) {
+            throw new StreamCorruptedException("Truncated response");
+        }
+    }
+
+    private static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        if (request instanceof BatchRequest) throw new NotSerializableException("Nested batch request");
+        out.writeLong(request.getRequestId());
+        writeString(out, request.getCommandName());
+        writeArgument(out, request.getCommandArgument());
+    }
+
+    private static Request readRequest(DataInputStream in) throws IOException {
+        long requestId = in.readLong();
+        Request request = new Request(readString(in), readArgument(in));
+        request.setRequestId(requestId);
+        return request;
+    }
+
+    private static void writeResponse(DataOutputStream out, Response response) throws IOException {
+        if (response instanceof BatchResponse) throw new NotSerializableException("Nested batch response");
+        out.writeLong(response.getRequestId());
+        out.writeByte(response.getResponseResult().ordinal());
+        out.writeBoolean(response.isPartial());
+        writeString(out, response.getResponseBody());
+    }
+
+    private static Response readResponse(DataInputStream in) throws IOException {
+        long requestId = in.readLong();
+        ResponseResult responseResult = readEnum(RESPONSE_RESULTS, in.readUnsignedByte());
+        boolean partial = in.readBoolean();
+        return new Response(requestId, responseResult, readString(in), partial);
+    }
+
+    private static byte readMessageKind(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind != SINGLE_MESSAGE && kind != BATCH_MESSAGE) throw new StreamCorruptedException("Unknown message kind: " + kind);
+        return kind;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available()) throw new StreamCorruptedException("Invalid count: " + count);
+        return count;
+    }
+
+    private static void writeArgument(DataOutputStream out, Serializable argument) throws IOException {
+        if (argument == null) {
+            out.writeByte(NULL_ARGUMENT);
+        } else if (argument instanceof String) {
+            out.writeByte(STRING_ARGUMENT);
+            writeString(out, (String) argument);
+        } else if (argument instanceof SpaceMarine) {
+            out.writeByte(SPACE_MARINE_ARGUMENT);
+            writeSpaceMarine(out, (SpaceMarine) argument);
+        } else if (argument instanceof Chapter) {
+            out.writeByte(CHAPTER_ARGUMENT);
+            writeChapter(out, (Chapter) argument);
+        } else {
+            throw new NotSerializableException(argument.getClass().getName());
+        }
+    }
+
+    private static Serializable readArgument(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL_ARGUMENT:
+                return null;
+            case STRING_ARGUMENT:
+                return readString(in);
+            case SPACE_MARINE_ARGUMENT:
+                return readSpaceMarine(in);
+            case CHAPTER_ARGUMENT:
+                return readChapter(in);
+            default:
+                throw new StreamCorruptedException("Unknown argument type: " + type);
+        }
+    }
+
+    private static void writeSpaceMarine(DataOutputStream out, SpaceMarine spaceMarine) throws IOException {
+        int fields = 0;
+        if (spaceMarine.getId() != null) fields |= HAS_ID;
+        if (spaceMarine.getName() != null) fields |= HAS_NAME;
+        if (spaceMarine.getCoordinates() != null) fields |= HAS_COORDINATES;
+        if (spaceMarine.getCreationDate() != null) fields |= HAS_CREATION_DATE;
+        if (spaceMarine.getHealth() != null) fields |= HAS_HEALTH;
+        if (spaceMarine.getHeight() != null) fields |= HAS_HEIGHT;
+        if (spaceMarine.getMeleeWeapon() != null) fields |= HAS_MELEE_WEAPON;
+        if (spaceMarine.getChapter() != null) fields |= HAS_CHAPTER;
+        out.writeByte(fields);
+        if ((fields & HAS_ID) != 0) out.writeLong(spaceMarine.getId());
+        if ((fields & HAS_NAME) != 0) writeString(out, spaceMarine.getName());
+        if ((fields & HAS_COORDINATES) != 0) {
+            out.writeFloat(spaceMarine.getCoordinates().getX());
+            out.writeDouble(spaceMarine.getCoordinates().getY());
+        }
+        if ((fields & HAS_CREATION_DATE) != 0) {
+            Instant instant = spaceMarine.getCreationDate().toInstant();
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+            writeString(out, spaceMarine.getCreationDate().getZone().getId());
+        }
+        if ((fields & HAS_HEALTH) != 0) out.writeInt(spaceMarine.getHealth());
+        out.writeLong(spaceMarine.getHeartCount());
+        if ((fields & HAS_HEIGHT) != 0) out.writeLong(spaceMarine.getHeight());
+        if ((fields & HAS_MELEE_WEAPON) != 0) out.writeByte(spaceMarine.getMeleeWeapon().ordinal());
+        if ((fields & HAS_CHAPTER) != 0) writeChapter(out, spaceMarine.getChapter());
+    }
+
+    private static SpaceMarine readSpaceMarine(DataInputStream in) throws IOException {
+        int fields = in.readUnsignedByte();
+        SpaceMarine spaceMarine = new SpaceMarine();
+        if ((fields & HAS_ID) != 0) spaceMarine.setId(in.readLong());
+        if ((fields & HAS_NAME) != 0) spaceMarine.setName(readString(in));
+        if ((fields & HAS_COORDINATES) != 0) spaceMarine.setCoordinates(new Coordinates(in.readFloat(), in.readDouble()));
+        if ((fields & HAS_CREATION_DATE) != 0) {
+            Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            try {
+                spaceMarine.setCreationDate(ZonedDateTime.ofInstant(instant, ZoneId.of(readString(in))));
+            } catch (RuntimeException exception) {
+                throw new StreamCorruptedException("Invalid creation date");
+            }
+        }
+        if ((fields & HAS_HEALTH) != 0) spaceMarine.setHealth(in.readInt());
+        spaceMarine.setHeartCount(in.readLong());
+        if ((fields & HAS_HEIGHT) != 0) spaceMarine.setHeight(in.readLong());
+        if ((fields & HAS_MELEE_WEAPON) != 0) spaceMarine.setMeleeWeapon(readEnum(MELEE_WEAPONS, in.readUnsignedByte()));
+        if ((fields & HAS_CHAPTER) != 0) spaceMarine.setChapter(readChapter(in));
+        return spaceMarine;
+    }
+
+    private static void writeChapter(DataOutputStream out, Chapter chapter) throws IOException {
+        writeString(out, chapter.getName());
+        writeString(out, chapter.getWorld());
+    }
+
+    private static Chapter readChapter(DataInputStream in) throws IOException {
+        return new Chapter(readString(in), readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) return null;
+        if (length < -1 || length > in.available()) throw new StreamCorruptedException("Invalid string length: " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T readEnum(T[] values, int ordinal) throws StreamCorruptedException {
+        if (ordinal >= values.length) throw new StreamCorruptedException("Unknown constant: " + ordinal);
+        return values[ordinal];
+    }
+}
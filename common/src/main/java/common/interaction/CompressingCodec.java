@@ -0,0 +1,116 @@
+package common.interaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec that deflates the responses of another codec when they are large.
+ * Every response payload starts with a flag telling if the rest is compressed.
+ * Requests are passed through unchanged.
+ */
+public class CompressingCodec implements MessageCodec {
+    /**
+     * Size of a response payload in bytes starting from which it is compressed.
+     */
+    public static final int DEFAULT_THRESHOLD = 1024;
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+    private static final int DEFLATED_HEADER_SIZE = 5;
+    private static final int MAX_INFLATED_SIZE = 16 * Frames.MAX_FRAME_SIZE;
+
+    private final MessageCodec codec;
+    private final int threshold;
+
+    /**
+     * Compressing codec constructor.
+     *
+     * @param codec Codec that encodes the messages.
+     * @param threshold Size of a response payload in bytes starting from which it is compressed.
+     */
+    public CompressingCodec(MessageCodec codec, int threshold) {
+        this.codec = codec;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] encodeRequest(Request request) throws IOException {
+        return codec.encodeRequest(request);
+    }
+
+    @Override
+    public Request decodeRequest(byte[] payload) throws IOException, ClassNotFoundException {
+        return codec.decodeRequest(payload);
+    }
+
+    @Override
+    public byte[] encodeResponse(Response response) throws IOException {
+        return compress(codec.encodeResponse(response));
+    }
+
+    @Override
+    public Response decodeResponse(byte[] payload) throws IOException, ClassNotFoundException {
+        return codec.decodeResponse(decompress(payload));
+    }
+
+    private byte[] compress(byte[] payload) {
+        if (payload.length < threshold) {
+            byte[] raw = new byte[payload.length + 1];
+            raw[0] = RAW;
+            System.arraycopy(payload, 0, raw, 1, payload.length);
+            return raw;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length / 4 + DEFLATED_HEADER_SIZE);
+        bytes.write(DEFLATED);
+        bytes.writeBytes(ByteBuffer.allocate(4).putInt(payload.length).array());
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            byte[] buffer = new byte[8 * 1024];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                bytes.write(buffer, 0, length);
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] payload) throws StreamCorruptedException {
+        if (payload.length == 0) throw new StreamCorruptedException("Empty response");
+        if (payload[0] == RAW) {
+            byte[] raw = new byte[payload.length - 1];
+            System.arraycopy(payload, 1, raw, 0, raw.length);
+            return raw;
+        }
+        if (payload[0] != DEFLATED || payload.length < DEFLATED_HEADER_SIZE)
+            throw new StreamCorruptedException("Unknown compression");
+        int length = ByteBuffer.wrap(payload, 1, 4).getInt();
+        if (length < 0 || length > MAX_INFLATED_SIZE)
+            throw new StreamCorruptedException("Invalid inflated length: " + length);
+        byte[] inflated = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload, DEFLATED_HEADER_SIZE, payload.length - DEFLATED_HEADER_SIZE);
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int inflatedLength = inflater.inflate(inflated, offset, length - offset);
+                if (inflatedLength == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new StreamCorruptedException("Truncated compressed response");
+                offset += inflatedLength;
+            }
+            if (offset != length) throw new StreamCorruptedException("Truncated compressed response");
+        } catch (DataFormatException exception) {
+            throw new StreamCorruptedException("Invalid compressed response");
+        } finally {
+            inflater.end();
+        }
+        return inflated;
+    }
+}
@@ -0,0 +1,94 @@
+package common.interaction;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Length-prefixed framing of the messages exchanged between client and server.
+ * Every frame is a 4-byte big-endian payload length followed by the payload itself.
+ */
+public class Frames {
+    /**
+     * Size of the frame header in bytes.
+     */
+    public static final int HEADER_SIZE = 4;
+    /**
+     * Largest payload accepted from the other side.
+     */
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Checks that the payload length read from a header is acceptable.
+     *
+     * @param length Payload length.
+     * @throws StreamCorruptedException If the length is negative or too big.
+     */
+    public static void checkLength(int length) throws StreamCorruptedException {
+        if (length < 0 || length > MAX_FRAME_SIZE)
+            throw new StreamCorruptedException("Invalid frame length: " + length);
+    }
+
+    /**
+     * Writes one frame and flushes the stream.
+     *
+     * @param out Stream to write to.
+     * @param payload Frame payload.
+     */
+    public static void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    /**
+     * Reads one frame.
+     *
+     * @param in Stream to read from.
+     * @return Frame payload.
+     */
+    public static byte[] readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        checkLength(length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * Wraps a payload into a buffer ready to be written to a channel.
+     *
+     * @param payload Frame payload.
+     * @return Buffer with header and payload.
+     */
+    public static ByteBuffer toBuffer(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).put(payload).flip();
+        return buffer;
+    }
+
+    /**
+     * Serializes an object into a frame payload.
+     *
+     * @param object Object to serialize.
+     * @return Serialized object.
+     */
+    public static byte[] serialize(Serializable object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes an object from a frame payload.
+     *
+     * @param payload Frame payload.
+     * @return Deserialized object.
+     */
+    public static Object deserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package common.interaction;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+/**
+ * First message of every connection.
+ * The client proposes connection settings and the server answers with the ones it has chosen.
+ */
+public class Handshake {
+    private static final short MAGIC = 0x534D;
+    private static final byte VERSION = 1;
+    private static final int SIZE = 5;
+    private static final byte COMPRESSION = 1;
+
+    private final WireFormat wireFormat;
+    private final boolean compression;
+
+    /**
+     * Handshake constructor.
+     * @param wireFormat Format of the requests and responses.
+     * @param compression True if large responses are compressed.
+     */
+    public Handshake(WireFormat wireFormat, boolean compression) {
+        this.wireFormat = wireFormat;
+        this.compression = compression;
+    }
+
+    /**
+     * @return Format of the requests and responses, null if the other side proposed an unknown one.
+     */
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * @return True if large responses are compressed.
+     */
+    public boolean isCompression() {
+        return compression;
+    }
+
+    /**
+     * Chooses settings for a client that has sent this handshake.
+     *
+     * @return Handshake to answer the client with.
+     */
+    public Handshake answer() {
+        return new Handshake(wireFormat == null ? WireFormat.SERIALIZATION : wireFormat, compression);
+    }
+
+    /**
+     * @return Codec that implements the chosen settings.
+     */
+    public MessageCodec getCodec() {
+        if (!compression) return wireFormat.getCodec();
+        return new CompressingCodec(wireFormat.getCodec(), CompressingCodec.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @return Frame payload.
+     */
+    public byte[] encode() {
+        return ByteBuffer.allocate(SIZE)
+                .putShort(MAGIC)
+                .put(VERSION)
+                .put(wireFormat.getCode())
+                .put(compression ? COMPRESSION : 0)
+                .array();
+    }
+
+    /**
+     * @param payload Frame payload.
+     * @return Decoded handshake.
+     * @throws StreamCorruptedException If the payload is not a handshake.
+     */
+    public static Handshake decode(byte[] payload) throws StreamCorruptedException {
+        if (payload.length < SIZE) throw new StreamCorruptedException("Handshake expected");
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        if (buffer.getShort() != MAGIC || buffer.get() != VERSION)
+            throw new StreamCorruptedException("Unsupported handshake");
+        WireFormat wireFormat = WireFormat.fromCode(buffer.get());
+        return new Handshake(wireFormat, (buffer.get() & COMPRESSION) != 0);
+    }
+
+    @Override
+    public String toString() {
+        return "Handshake[" + wireFormat + (compression ? ", compression]" : "]");
+    }
+}
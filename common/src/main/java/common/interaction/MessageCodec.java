@@ -0,0 +1,32 @@
+package common.interaction;
+
+import java.io.IOException;
+
+/**
+ * Converts requests and responses to frame payloads and back.
+ */
+public interface MessageCodec {
+    /**
+     * @param request Request to encode.
+     * @return Frame payload.
+     */
+    byte[] encodeRequest(Request request) throws IOException;
+
+    /**
+     * @param payload Frame payload.
+     * @return Decoded request.
+     */
+    Request decodeRequest(byte[] payload) throws IOException, ClassNotFoundException;
+
+    /**
+     * @param response Response to encode.
+     * @return Frame payload.
+     */
+    byte[] encodeResponse(Response response) throws IOException;
+
+    /**
+     * @param payload Frame payload.
+     * @return Decoded response.
+     */
+    Response decodeResponse(byte[] payload) throws IOException, ClassNotFoundException;
+}
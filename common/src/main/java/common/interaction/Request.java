@@ -3,6 +3,15 @@ package common.interaction;
 import java.io.Serializable;
 
 public class Request implements Serializable {
+    /**
+     * Name of the keep-alive request, answered by the server without running a command.
+     */
+    public static final String PING_COMMAND = "ping";
+    /**
+     * Id of keep-alive requests, regular requests have positive ids.
+     */
+    public static final long PING_ID = 0;
+    long requestId;
     String commandName;
     Serializable commandArgument;
 
@@ -15,6 +24,20 @@ public class Request implements Serializable {
         this.commandArgument = commandArgument;
     }
 
+    /**
+     * @return Id that the server echoes in the response to this request.
+     */
+    public long getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * @param requestId Id that the server echoes in the response to this request.
+     */
+    public void setRequestId(long requestId) {
+        this.requestId = requestId;
+    }
+
     public String getCommandName() {
         return commandName;
     }
@@ -27,9 +50,27 @@ public class Request implements Serializable {
         return commandName.isEmpty() && (commandArgument == null);
     }
 
+    /**
+     * @return True if this is a keep-alive request.
+     */
+    public boolean isPing() {
+        return PING_COMMAND.equals(commandName);
+    }
+
+    /**
+     * Creates a keep-alive request.
+     *
+     * @return Request that only shows the server the connection is alive.
+     */
+    public static Request ping() {
+        Request request = new Request(PING_COMMAND, "");
+        request.setRequestId(PING_ID);
+        return request;
+    }
+
     @Override
     public String toString() {
-        return "Request[" + commandName + ", " + commandArgument.toString() + "]";
+        return "Request[" + requestId + ", " + commandName + ", " + commandArgument.toString() + "]";
     }
 
 }
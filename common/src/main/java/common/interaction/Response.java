@@ -6,12 +6,46 @@ import java.io.Serializable;
  * Class for get response value.
  */
 public class Response implements Serializable {
+    private final long requestId;
     private final ResponseResult responseResult;
     private final String responseBody;
+    private final boolean partial;
 
     public Response(ResponseResult responseResult, String responseBody) {
+        this(0, responseResult, responseBody);
+    }
+
+    public Response(long requestId, ResponseResult responseResult, String responseBody) {
+        this(requestId, responseResult, responseBody, false);
+    }
+
+    /**
+     * @param requestId Id of the request this response answers
+     * @param responseResult Response result
+     * @param responseBody Response body
+     * @param partial True if more chunks of the body follow
+     */
+    public Response(long requestId, ResponseResult responseResult, String responseBody, boolean partial) {
+        this.requestId = requestId;
         this.responseResult = responseResult;
         this.responseBody = responseBody;
+        this.partial = partial;
+    }
+
+    /**
+     * Creates the answer to a keep-alive request.
+     *
+     * @return Empty successful response with the ping id
+     */
+    public static Response pong() {
+        return new Response(Request.PING_ID, ResponseResult.OK, "");
+    }
+
+    /**
+     * @return Id of the request this response answers
+     */
+    public long getRequestId() {
+        return requestId;
     }
 
     /**
@@ -30,8 +64,17 @@ public class Response implements Serializable {
         return responseBody;
     }
 
+    /**
+     * A streamed response is sent as partial chunks followed by one final response with the result.
+     *
+     * @return True if more chunks of the body follow
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
     @Override
     public String toString() {
-        return "Response[" + responseResult + ", " + responseBody + "]";
+        return "Response[" + requestId + ", " + responseResult + ", " + responseBody + (partial ? ", partial]" : "]");
     }
 }
\ No newline at end of file
@@ -8,5 +8,6 @@ import java.io.Serializable;
 public enum ResponseResult implements Serializable {
     OK,
     ERROR,
-    SERVER_EXIT
+    SERVER_EXIT,
+    BUSY
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package common.interaction;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+
+/**
+ * Codec based on the standard Java serialization.
+ * Kept for clients that cannot use the binary codec.
+ */
+public class SerializationCodec implements MessageCodec {
+    @Override
+    public byte[] encodeRequest(Request request) throws IOException {
+        return Frames.serialize(request);
+    }
+
+    @Override
+    public Request decodeRequest(byte[] payload) throws IOException, ClassNotFoundException {
+        Object message = Frames.deserialize(payload);
+        if (!(message instanceof Request)) throw new InvalidClassException("Request expected");
+        return (Request) message;
+    }
+
+    @Override
+    public byte[] encodeResponse(Response response) throws IOException {
+        return Frames.serialize(response);
+    }
+
+    @Override
+    public Response decodeResponse(byte[] payload) throws IOException, ClassNotFoundException {
+        Object message = Frames.deserialize(payload);
+        if (!(message instanceof Response)) throw new InvalidClassException("Response expected");
+        return (Response) message;
+    }
+}
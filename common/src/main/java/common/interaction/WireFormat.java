@@ -0,0 +1,62 @@
+package common.interaction;
+
+/**
+ * Formats in which requests and responses can be sent.
+ */
+public enum WireFormat {
+    /**
+     * Standard Java serialization.
+     */
+    SERIALIZATION((byte) 0, new SerializationCodec()),
+    /**
+     * Compact hand-written binary encoding.
+     */
+    BINARY((byte) 1, new BinaryCodec());
+
+    private final byte code;
+    private final MessageCodec codec;
+
+    WireFormat(byte code, MessageCodec codec) {
+        this.code = code;
+        this.codec = codec;
+    }
+
+    /**
+     * @return Code of the format sent in the handshake.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return Codec that implements the format.
+     */
+    public MessageCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Finds the format by its handshake code.
+     *
+     * @param code Code of the format.
+     * @return Format with this code or null if there is none.
+     */
+    public static WireFormat fromCode(byte code) {
+        for (WireFormat format : values()) {
+            if (format.code == code) return format;
+        }
+        return null;
+    }
+
+    /**
+     * Method that shows enum list.
+     * @return enum list in string format.
+     */
+    public static String nameList() {
+        StringBuilder nameList = new StringBuilder();
+        for (WireFormat format : values()) {
+            nameList.append(format.name()).append(", ");
+        }
+        return nameList.substring(0, nameList.length() - 2);
+    }
+}
@@ -5,10 +5,12 @@ import server.utility.CollectionManager;
 import server.utility.CommandManager;
 import server.utility.FileManager;
 import server.utility.RequestHandler;
+import server.utility.RequestQueue;
 
 import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.locks.Lock;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Logger;
@@ -16,11 +18,52 @@ import java.util.logging.Logger;
 public class App {
 
     public static final int PORT = 64532;
-    public static final int connectionTimeout = 60 * 1000;
+    /**
+     * Time after which a client that sends nothing, not even a ping, is disconnected.
+     */
+    public static final int idleTimeout = 60 * 1000;
     public static final Logger logger = Logger.getLogger(Server.class.getName());
+    public static final int DEFAULT_WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
 
 
+    private static ServerMode initializeServerMode(String[] args) {
+        if (args.length == 0) return ServerMode.SELECTOR;
+        try {
+            return ServerMode.valueOf(args[0].toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            Outputter.printError("Unknown server mode '" + args[0] + "'! Available modes: " + ServerMode.nameList());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a positive number from the arguments.
+     *
+     * @param args Arguments of the server.
+     * @param index Position of the number.
+     * @param name Name of the number for the error message.
+     * @param defaultValue Value used when the argument is missing.
+     * @return The number, or -1 if the argument is not a positive number.
+     */
+    private static int initializeNumber(String[] args, int index, String name, int defaultValue) {
+        if (args.length <= index) return defaultValue;
+        try {
+            int value = Integer.parseInt(args[index]);
+            if (value <= 0) throw new NumberFormatException();
+            return value;
+        } catch (NumberFormatException exception) {
+            Outputter.printError("The " + name + " must be a positive number!");
+            return -1;
+        }
+    }
+
     public static void main(String[] args) throws IOException, ClassNotFoundException {
+        ServerMode serverMode = initializeServerMode(args);
+        if (serverMode == null) return;
+        int workerCount = initializeNumber(args, 1, "number of workers", DEFAULT_WORKER_COUNT);
+        int queueCapacity = initializeNumber(args, 2, "queue capacity", DEFAULT_QUEUE_CAPACITY);
+        if (workerCount < 0 || queueCapacity < 0) return;
         FileHandler fh;
         fh = new FileHandler("server.log");
         logger.addHandler(fh);
@@ -32,15 +75,38 @@ public class App {
         String fileName = "data.csv";
         FileManager fileManager = new FileManager(fileName, ";");
         CollectionManager collectionManager = new CollectionManager(fileManager);
-        CommandManager commandManager = new CommandManager(collectionManager);
+        saveOnShutdown(collectionManager);
+        RequestQueue requestQueue = new RequestQueue(workerCount, queueCapacity);
+        CommandManager commandManager = new CommandManager(collectionManager, requestQueue);
         RequestHandler requestHandler = new RequestHandler(commandManager);
-        Server server = new Server(PORT, connectionTimeout, requestHandler);
-
-        server.run();
-
-        collectionManager.saveCollection();
-
-
+        App.logger.info("Server mode is " + serverMode + ", " + workerCount + " workers, queue capacity "
+                + queueCapacity + ".");
+        if (serverMode == ServerMode.SELECTOR) {
+            SelectorServer server = new SelectorServer(PORT, idleTimeout, requestHandler, requestQueue);
+            server.run();
+        } else {
+            Server server = new Server(PORT, idleTimeout, requestHandler, requestQueue,
+                    serverMode == ServerMode.THREAD_PER_CONNECTION);
+            server.run();
+        }
+        requestQueue.shutdown();
+    }
 
+    /**
+     * Saves the collection when the server process ends, whatever ends it.
+     * The write lock makes the save wait for the command that is changing the collection.
+     *
+     * @param collectionManager Collection manager to save.
+     */
+    private static void saveOnShutdown(CollectionManager collectionManager) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Lock writeLock = collectionManager.getWriteLock();
+            writeLock.lock();
+            try {
+                collectionManager.saveCollection();
+            } finally {
+                writeLock.unlock();
+            }
+        }, "collection-saver"));
     }
 }
@@ -0,0 +1,180 @@
+package server;
+
+import common.interaction.Frames;
+import common.interaction.MessageCodec;
+import server.utility.RequestQueue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * State of one client connection served by the selector.
+ * Collects incoming bytes into frames and keeps the frames that are not yet written.
+ * Worker threads post their frames to a bounded outbox, which the selector thread moves to the channel.
+ */
+public class ClientSession {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int OUTBOX_CAPACITY = 16;
+    private static final long POST_WAIT_MILLIS = 100;
+
+    private final SocketChannel channel;
+    private final RequestQueue.Lane lane;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final Deque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+    private final BlockingQueue<byte[]> outbox = new ArrayBlockingQueue<>(OUTBOX_CAPACITY);
+    private volatile boolean closed;
+    private long lastActivity = System.nanoTime();
+    private ByteBuffer frameBody;
+    private volatile MessageCodec codec;
+
+    /**
+     * Client session constructor.
+     * @param channel Channel of the client connection.
+     * @param lane Lane the requests of the client are handled in.
+     */
+    public ClientSession(SocketChannel channel, RequestQueue.Lane lane) {
+        this.channel = channel;
+        this.lane = lane;
+    }
+
+    /**
+     * Lane getter.
+     * @return Lane the requests of the client are handled in.
+     */
+    public RequestQueue.Lane getLane() {
+        return lane;
+    }
+
+    /**
+     * Channel getter.
+     * @return Channel of the client connection.
+     */
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Codec getter.
+     * @return Codec chosen in the handshake, null until the handshake is received.
+     */
+    public MessageCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Codec setter.
+     * @param codec Codec chosen in the handshake.
+     */
+    public void setCodec(MessageCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Reads everything the client has sent so far.
+     *
+     * @return Payloads of the frames completed by this read.
+     * @throws EOFException If the client has closed the connection.
+     */
+    public List<byte[]> readFrames() throws IOException {
+        if (channel.read(readBuffer) < 0) throw new EOFException();
+        lastActivity = System.nanoTime();
+        readBuffer.flip();
+        List<byte[]> frames = new ArrayList<>();
+        while (true) {
+            if (frameBody == null) {
+                if (readBuffer.remaining() < Frames.HEADER_SIZE) break;
+                int length = readBuffer.getInt();
+                Frames.checkLength(length);
+                frameBody = ByteBuffer.allocate(length);
+            }
+            int limit = readBuffer.limit();
+            readBuffer.limit(readBuffer.position() + Math.min(frameBody.remaining(), readBuffer.remaining()));
+            frameBody.put(readBuffer);
+            readBuffer.limit(limit);
+            if (frameBody.hasRemaining()) break;
+            frames.add(frameBody.array());
+            frameBody = null;
+        }
+        readBuffer.compact();
+        return frames;
+    }
+
+    /**
+     * Tells whether the client has sent nothing for too long.
+     *
+     * @param idleTimeout Time in milliseconds after which the client is idle.
+     * @param now Current value of System.nanoTime().
+     * @return True if nothing has been read for longer than the timeout.
+     */
+    public boolean isIdle(int idleTimeout, long now) {
+        return now - lastActivity > TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+    }
+
+    /**
+     * Queues a frame to be sent to the client.
+     *
+     * @param payload Frame payload.
+     */
+    public void queue(byte[] payload) {
+        pendingWrites.addLast(Frames.toBuffer(payload));
+    }
+
+    /**
+     * Posts a frame from a worker thread.
+     * Waits while the outbox is full, so a slow client holds back only its own requests.
+     *
+     * @param payload Frame payload.
+     * @throws ClosedChannelException If the client has been disconnected.
+     */
+    public void post(byte[] payload) throws IOException {
+        try {
+            while (!outbox.offer(payload, POST_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (closed) throw new ClosedChannelException();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (closed) throw new ClosedChannelException();
+    }
+
+    /**
+     * Writes as much of the queued and posted frames as the channel accepts.
+     * Posted frames are taken from the outbox only when the earlier ones are written.
+     *
+     * @return True if nothing is left to write.
+     */
+    public boolean flush() throws IOException {
+        while (true) {
+            if (pendingWrites.isEmpty()) {
+                byte[] payload = outbox.poll();
+                if (payload == null) return true;
+                queue(payload);
+            }
+            ByteBuffer buffer = pendingWrites.peekFirst();
+            channel.write(buffer);
+            if (buffer.hasRemaining()) return false;
+            pendingWrites.pollFirst();
+        }
+    }
+
+    /**
+     * Marks the session closed and drops the frames that are not yet written.
+     */
+    public void close() {
+        closed = true;
+        outbox.clear();
+        pendingWrites.clear();
+    }
+}
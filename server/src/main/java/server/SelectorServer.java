@@ -0,0 +1,272 @@
+package server;
+
+import common.exceptions.ClosingSocketException;
+import common.exceptions.OpeningServerSocketException;
+import common.interaction.Handshake;
+import common.interaction.Request;
+import common.interaction.Response;
+import common.interaction.ResponseResult;
+import common.utility.Outputter;
+import server.utility.RequestHandler;
+import server.utility.RequestQueue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server that serves all clients from one thread with a non-blocking selector.
+ * Every complete request of any client is passed to the request queue as soon as it arrives,
+ * the responses of the worker threads are written back by the selector thread.
+ */
+public class SelectorServer {
+    /**
+     * Time in milliseconds between the checks for idle clients.
+     */
+    private static final int IDLE_CHECK_INTERVAL = 5 * 1000;
+
+    private final int port;
+    private final int idleTimeout;
+    private final RequestHandler requestHandler;
+    private final RequestQueue requestQueue;
+    private final Queue<SelectionKey> postedKeys = new ConcurrentLinkedQueue<>();
+    private ServerSocketChannel serverSocketChannel;
+    private Selector selector;
+    private volatile boolean processingStatus;
+
+    /**
+     * Selector server constructor.
+     * @param port Port to listen.
+     * @param idleTimeout Time after which a client that sends nothing is disconnected.
+     * @param requestHandler Handler of client requests.
+     * @param requestQueue Queue the requests wait in for a worker thread.
+     */
+    public SelectorServer(int port, int idleTimeout, RequestHandler requestHandler, RequestQueue requestQueue) {
+        this.port = port;
+        this.idleTimeout = idleTimeout;
+        this.requestHandler = requestHandler;
+        this.requestQueue = requestQueue;
+    }
+
+    public void run() {
+        try {
+            openServerSocket();
+            processingStatus = true;
+            long lastIdleCheck = System.nanoTime();
+            while (processingStatus) {
+                try {
+                    selector.select(IDLE_CHECK_INTERVAL);
+                } catch (IOException exception) {
+                    Outputter.printError("An error occurred while waiting for the clients!");
+                    App.logger.severe("An error occurred while waiting for the clients!");
+                    break;
+                }
+                flushPostedKeys();
+                Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) connectToClient();
+                    else processClientKey(key);
+                }
+                long now = System.nanoTime();
+                if (now - lastIdleCheck >= TimeUnit.MILLISECONDS.toNanos(IDLE_CHECK_INTERVAL)) {
+                    disconnectIdleClients(now);
+                    lastIdleCheck = now;
+                }
+            }
+            stop();
+        } catch (OpeningServerSocketException e) {
+            Outputter.printError("The server cannot be started!");
+            App.logger.severe("The server cannot be started!");
+        }
+    }
+
+    /**
+     * Open server socket channel and register it in the selector.
+     */
+    private void openServerSocket() throws OpeningServerSocketException {
+        try {
+            App.logger.info("Starting the server...");
+            selector = Selector.open();
+            serverSocketChannel = ServerSocketChannel.open();
+            serverSocketChannel.bind(new InetSocketAddress(port));
+            serverSocketChannel.configureBlocking(false);
+            serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+            App.logger.info("The server has been successfully started.");
+            Outputter.printLn("Listening port '" + port + "'...");
+            App.logger.info("Listening port '" + port + "'...");
+        } catch (IllegalArgumentException exception) {
+            Outputter.printError("Port '" + port + "' is beyond the limits of possible values!");
+            App.logger.severe("Port '" + port + "' is beyond the limits of possible values!");
+            throw new OpeningServerSocketException();
+        } catch (IOException exception) {
+            Outputter.printError("An error occurred while trying to use the port '" + port + "'!");
+            App.logger.severe("An error occurred while trying to use the port '" + port + "'!");
+            throw new OpeningServerSocketException();
+        }
+    }
+
+    private void connectToClient() {
+        try {
+            SocketChannel clientChannel = serverSocketChannel.accept();
+            if (clientChannel == null) return;
+            clientChannel.configureBlocking(false);
+            clientChannel.socket().setKeepAlive(true);
+            clientChannel.register(selector, SelectionKey.OP_READ, new ClientSession(clientChannel, requestQueue.newLane()));
+            Outputter.printLn("The connection with the client has been successfully established.");
+            App.logger.info("The connection with the client has been successfully established.");
+        } catch (IOException exception) {
+            Outputter.printError("An error occurred while connecting to the client!");
+            App.logger.severe("An error occurred while connecting to the client!");
+        }
+    }
+
+    private void processClientKey(SelectionKey key) {
+        ClientSession session = (ClientSession) key.attachment();
+        try {
+            if (key.isReadable()) {
+                for (byte[] frame : session.readFrames()) {
+                    if (session.getCodec() == null) {
+                        Handshake handshake = Handshake.decode(frame).answer();
+                        session.setCodec(handshake.getCodec());
+                        session.queue(handshake.encode());
+                        App.logger.info("Connection settings of the client are " + handshake + ".");
+                        continue;
+                    }
+                    Request userRequest = session.getCodec().decodeRequest(frame);
+                    if (userRequest.isPing()) {
+                        session.queue(session.getCodec().encodeResponse(Response.pong()));
+                        continue;
+                    }
+                    if (!session.getLane().submit(userRequest.getRequestId(), () -> handleInWorker(key, userRequest))) {
+                        session.queue(session.getCodec().encodeResponse(RequestQueue.busyResponse(userRequest)));
+                    }
+                }
+            }
+            flushClient(key);
+        } catch (ClassNotFoundException | ObjectStreamException exception) {
+            Outputter.printError("An error occurred while reading the received data!");
+            App.logger.severe("An error occurred while reading the received data!");
+            disconnectClient(key);
+        } catch (EOFException exception) {
+            Outputter.printLn("The client has been successfully disconnected from the server!");
+            App.logger.info("The client has been successfully disconnected from the server!");
+            disconnectClient(key);
+        } catch (IOException exception) {
+            Outputter.printError("Unexpected disconnection from the client!");
+            App.logger.warning("Unexpected disconnection from the client!");
+            disconnectClient(key);
+        }
+    }
+
+    /**
+     * Handles a request in a worker thread and posts the response to the session of the client.
+     *
+     * @param key Key of the client.
+     * @param userRequest Request of the client.
+     */
+    private void handleInWorker(SelectionKey key, Request userRequest) {
+        ClientSession session = (ClientSession) key.attachment();
+        try {
+            Response responseToUser = requestHandler.handle(userRequest, partialResponse ->
+                    postToClient(key, session.getCodec().encodeResponse(partialResponse)));
+            App.logger.info("Request '" + userRequest.getCommandName() + "' has been successfully processed.");
+            postToClient(key, session.getCodec().encodeResponse(responseToUser));
+            if (responseToUser.getResponseResult() == ResponseResult.SERVER_EXIT) {
+                processingStatus = false;
+                selector.wakeup();
+            }
+        } catch (IOException exception) {
+            App.logger.warning("The response to '" + userRequest.getCommandName() + "' has not been delivered to the client.");
+        }
+    }
+
+    private void postToClient(SelectionKey key, byte[] payload) throws IOException {
+        ((ClientSession) key.attachment()).post(payload);
+        postedKeys.add(key);
+        selector.wakeup();
+    }
+
+    /**
+     * Writes the frames posted by the worker threads since the last wakeup.
+     */
+    private void flushPostedKeys() {
+        SelectionKey key;
+        while ((key = postedKeys.poll()) != null) {
+            if (!key.isValid()) continue;
+            try {
+                flushClient(key);
+            } catch (IOException exception) {
+                Outputter.printError("Unexpected disconnection from the client!");
+                App.logger.warning("Unexpected disconnection from the client!");
+                disconnectClient(key);
+            }
+        }
+    }
+
+    private void flushClient(SelectionKey key) throws IOException {
+        ClientSession session = (ClientSession) key.attachment();
+        if (session.flush()) key.interestOps(SelectionKey.OP_READ);
+        else key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * Disconnects the clients that have sent nothing, not even a ping, for longer than the idle timeout.
+     *
+     * @param now Current value of System.nanoTime().
+     */
+    private void disconnectIdleClients(long now) {
+        for (SelectionKey key : selector.keys()) {
+            if (!key.isValid() || !(key.attachment() instanceof ClientSession)) continue;
+            if (((ClientSession) key.attachment()).isIdle(idleTimeout, now)) {
+                Outputter.printLn("The client has been disconnected after " + idleTimeout / 1000 + " seconds of inactivity.");
+                App.logger.info("The client has been disconnected after " + idleTimeout / 1000 + " seconds of inactivity.");
+                disconnectClient(key);
+            }
+        }
+    }
+
+    private void disconnectClient(SelectionKey key) {
+        ((ClientSession) key.attachment()).close();
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException exception) {
+            Outputter.printError("An error occurred while trying to terminate the connection with the client!");
+            App.logger.severe("An error occurred while trying to terminate the connection with the client!");
+        }
+    }
+
+    /**
+     * Finishes server operation.
+     */
+    private void stop() {
+        try {
+            App.logger.info("Shutting down the server...");
+            if (serverSocketChannel == null) throw new ClosingSocketException();
+            for (SelectionKey key : selector.keys()) {
+                if (key.channel() != serverSocketChannel) disconnectClient(key);
+            }
+            serverSocketChannel.close();
+            selector.close();
+            Outputter.printLn("The server operation has been successfully completed.");
+        } catch (ClosingSocketException exception) {
+            Outputter.printError("It is impossible to shut down a server that has not yet started!");
+            App.logger.severe("It is impossible to shut down a server that has not yet started!");
+        } catch (IOException exception) {
+            Outputter.printError("An error occurred when shutting down the server!");
+            App.logger.severe("An error occurred when shutting down the server!");
+        }
+    }
+}
@@ -3,44 +3,78 @@ package server;
 import common.exceptions.ClosingSocketException;
 import common.exceptions.ConnectionErrorException;
 import common.exceptions.OpeningServerSocketException;
+import common.interaction.Frames;
+import common.interaction.Handshake;
+import common.interaction.MessageCodec;
 import common.interaction.Request;
 import common.interaction.Response;
 import common.interaction.ResponseResult;
 import common.utility.Outputter;
 import server.utility.RequestHandler;
+import server.utility.RequestQueue;
+import server.utility.ResponseSink;
 
 import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Server {
+    /**
+     * Pause in milliseconds after a failed accept, doubled after every further failure in a row.
+     */
+    private static final int ACCEPT_RETRY_DELAY = 100;
+    private static final int MAX_ACCEPT_RETRY_DELAY = 5000;
 
     private final int port;
-    private final int soTimeout;
+    private final int idleTimeout;
+    private final boolean threadPerConnection;
+    private volatile boolean processingStatus;
     private ServerSocket serverSocket;
+    private ExecutorService connectionExecutor;
     private RequestHandler requestHandler;
+    private RequestQueue requestQueue;
+    private int acceptRetryDelay = ACCEPT_RETRY_DELAY;
 
-    public Server(int port, int soTimeout, RequestHandler requestHandler) {
+    public Server(int port, int idleTimeout, RequestHandler requestHandler, RequestQueue requestQueue) {
+        this(port, idleTimeout, requestHandler, requestQueue, false);
+    }
+
+    /**
+     * Server constructor.
+     * @param port Port to listen.
+     * @param idleTimeout Time after which a client that sends nothing is disconnected.
+     * @param requestHandler Handler of client requests.
+     * @param requestQueue Queue the requests wait in for a worker thread.
+     * @param threadPerConnection Serve every client in its own thread instead of one client at a time.
+     */
+    public Server(int port, int idleTimeout, RequestHandler requestHandler, RequestQueue requestQueue,
+                  boolean threadPerConnection) {
         this.port = port;
-        this.soTimeout = soTimeout;
+        this.idleTimeout = idleTimeout;
         this.requestHandler = requestHandler;
+        this.requestQueue = requestQueue;
+        this.threadPerConnection = threadPerConnection;
     }
 
     public void run() {
         try {
             openServerSocket();
-            boolean processingStatus = true;
+            if (threadPerConnection) connectionExecutor = newConnectionExecutor();
+            processingStatus = true;
             while(processingStatus) {
-                try(Socket clientSocket = connectToClient()) {
-                    processingStatus = processClientRequest(clientSocket);
-                } catch (ConnectionErrorException | SocketTimeoutException e) {
+                try {
+                    Socket clientSocket = connectToClient();
+                    if (clientSocket == null) continue;
+                    if (threadPerConnection) connectionExecutor.execute(() -> serveClient(clientSocket));
+                    else serveClient(clientSocket);
+                } catch (ConnectionErrorException e) {
                     break;
-                } catch (IOException e) {
-                    Outputter.printError("An error occurred while trying to terminate the connection with the client!");
-                    App.logger.severe("An error occurred while trying to terminate the connection with the client!");
                 }
-
             }
 
             stop();
@@ -50,6 +84,45 @@ public class Server {
         }
     }
 
+    /**
+     * Creates executor that starts a new thread for every client.
+     * Virtual threads are used when the runtime supports them.
+     *
+     * @return Executor for client connections.
+     */
+    private ExecutorService newConnectionExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            App.logger.info("Clients are served by virtual threads.");
+            return executor;
+        } catch (ReflectiveOperationException exception) {
+            App.logger.info("Virtual threads are not supported, clients are served by platform threads.");
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Serves one client until it disconnects and closes its socket.
+     * @param clientSocket Socket of the client.
+     */
+    private void serveClient(Socket clientSocket) {
+        try (Socket socket = clientSocket) {
+            if (!processClientRequest(socket)) {
+                processingStatus = false;
+                if (threadPerConnection) serverSocket.close();
+            }
+        } catch (IOException e) {
+            Outputter.printError("An error occurred while trying to terminate the connection with the client!");
+            App.logger.severe("An error occurred while trying to terminate the connection with the client!");
+        }
+    }
+
     /**
      * Open server socket.
      */
@@ -57,7 +130,6 @@ public class Server {
         try{
             App.logger.info("Starting the server...");
             serverSocket = new ServerSocket(port);
-            serverSocket.setSoTimeout(soTimeout);
             App.logger.info("The server has been successfully started.");
         } catch (IllegalArgumentException exception) {
             Outputter.printError("Port '" + port + "' is beyond the limits of possible values!");
@@ -70,42 +142,73 @@ public class Server {
         }
     }
 
-    private Socket connectToClient() throws ConnectionErrorException, SocketTimeoutException {
+    /**
+     * Waits for a new client without a time limit.
+     * Idle clients are disconnected by the timeout of their own socket, the listener stays open.
+     * A failed accept is logged and the listener waits a growing pause before it tries again,
+     * so a lasting error does not keep it spinning. The listener stops if its socket has been closed.
+     * @return Socket of the client, null if the accept failed.
+     */
+    private Socket connectToClient() throws ConnectionErrorException {
         try{
             Outputter.printLn("Listening port '" + port + "'...");
             App.logger.info("Listening port '" + port + "'...");
             Socket clientSocket = serverSocket.accept();
+            clientSocket.setSoTimeout(idleTimeout);
+            clientSocket.setKeepAlive(true);
+            acceptRetryDelay = ACCEPT_RETRY_DELAY;
             Outputter.printLn("The connection with the client has been successfully established.");
             App.logger.info("The connection with the client has been successfully established.");
             return clientSocket;
-        } catch (SocketTimeoutException exception) {
-            Outputter.printError("Connection timeout exceeded!");
-            App.logger.warning("Connection timeout exceeded!");
-            throw new SocketTimeoutException();
         } catch (IOException exception) {
+            if (!processingStatus || serverSocket.isClosed()) throw new ConnectionErrorException();
             Outputter.printError("An error occurred while connecting to the client!");
-            App.logger.severe("An error occurred while connecting to the client!");
+            App.logger.severe("An error occurred while connecting to the client, the next attempt is in "
+                    + acceptRetryDelay + " ms: " + exception.getMessage());
+            waitBeforeNextAccept();
+            return null;
+        }
+    }
+
+    private void waitBeforeNextAccept() throws ConnectionErrorException {
+        try {
+            Thread.sleep(acceptRetryDelay);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
             throw new ConnectionErrorException();
         }
+        acceptRetryDelay = Math.min(2 * acceptRetryDelay, MAX_ACCEPT_RETRY_DELAY);
     }
 
     private boolean processClientRequest(Socket clientSocket) {
         Request userRequest = null;
         Response responseToUser;
-        try (ObjectInputStream clientReader = new ObjectInputStream(clientSocket.getInputStream());
-             ObjectOutputStream clientWriter = new ObjectOutputStream(clientSocket.getOutputStream())) {
+        try (DataInputStream clientReader = new DataInputStream(new BufferedInputStream(clientSocket.getInputStream()));
+             DataOutputStream clientWriter = new DataOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()))) {
+            Handshake handshake = Handshake.decode(Frames.readFrame(clientReader)).answer();
+            Frames.writeFrame(clientWriter, handshake.encode());
+            App.logger.info("Connection settings of the client are " + handshake + ".");
+            MessageCodec codec = handshake.getCodec();
+            RequestQueue.Lane lane = requestQueue.newLane();
+            ResponseSink responseSink = partialResponse ->
+                    Frames.writeFrame(clientWriter, codec.encodeResponse(partialResponse));
             do {
-                userRequest = (Request) clientReader.readObject();
-                responseToUser = requestHandler.handle(userRequest);
-                App.logger.info("Request '" + userRequest.getCommandName() + "' has been successfully processed.");
-                clientWriter.writeObject(responseToUser);
-                clientWriter.flush();
-            } while(responseToUser.getResponseResult() != ResponseResult.SERVER_EXIT);
+                userRequest = codec.decodeRequest(Frames.readFrame(clientReader));
+                if (userRequest.isPing()) {
+                    Frames.writeFrame(clientWriter, codec.encodeResponse(Response.pong()));
+                    responseToUser = null;
+                    continue;
+                }
+                responseToUser = handleInQueue(userRequest, responseSink, lane);
+            } while(responseToUser == null || responseToUser.getResponseResult() != ResponseResult.SERVER_EXIT);
             return false;
-        } catch (ClassNotFoundException exception){
+        } catch (ClassNotFoundException | ObjectStreamException exception){
             Outputter.printError("An error occurred while reading the received data!");
             App.logger.severe("An error occurred while reading the received data!");
 
+        } catch (SocketTimeoutException exception) {
+            Outputter.printLn("The client has been disconnected after " + idleTimeout / 1000 + " seconds of inactivity.");
+            App.logger.info("The client has been disconnected after " + idleTimeout / 1000 + " seconds of inactivity.");
         } catch (IOException exception) {
             if (userRequest == null) {
                 Outputter.printError("Unexpected disconnection from the client!");
@@ -118,6 +221,41 @@ public class Server {
         return true;
     }
 
+    /**
+     * Passes the request to a worker thread and waits until it has sent the response.
+     * The response is sent by the worker, so the request leaves the queue only after its response is written.
+     *
+     * @param userRequest Request of the client.
+     * @param responseSink Receiver of the partial and final responses.
+     * @param lane Lane of the connection.
+     * @return Response to the request, BUSY if the queue is full.
+     */
+    private Response handleInQueue(Request userRequest, ResponseSink responseSink, RequestQueue.Lane lane)
+            throws IOException {
+        Future<Response> futureResponse = lane.submit(userRequest.getRequestId(), () -> {
+            Response responseToUser = requestHandler.handle(userRequest, responseSink);
+            responseSink.send(responseToUser);
+            return responseToUser;
+        });
+        if (futureResponse == null) {
+            Response busyResponse = RequestQueue.busyResponse(userRequest);
+            responseSink.send(busyResponse);
+            return busyResponse;
+        }
+        try {
+            Response responseToUser = futureResponse.get();
+            App.logger.info("Request '" + userRequest.getCommandName() + "' has been successfully processed.");
+            return responseToUser;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException) throw (IOException) exception.getCause();
+            if (exception.getCause() instanceof RuntimeException) throw (RuntimeException) exception.getCause();
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
     /**
      * Finishes server operation.
      */
@@ -125,6 +263,7 @@ public class Server {
         try{
             App.logger.info("Shutting down the server...");
             if(serverSocket == null) throw new ClosingSocketException();
+            if (connectionExecutor != null) connectionExecutor.shutdown();
             serverSocket.close();
             Outputter.printLn("The server operation has been successfully completed.");
         } catch (ClosingSocketException exception) {
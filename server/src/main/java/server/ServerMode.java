@@ -0,0 +1,31 @@
+package server;
+
+/**
+ * Ways the server can serve its clients.
+ */
+public enum ServerMode {
+    /**
+     * One client at a time, each served until it disconnects.
+     */
+    BLOCKING,
+    /**
+     * All clients served by one thread through a non-blocking selector.
+     */
+    SELECTOR,
+    /**
+     * Every client served by its own thread, virtual if the runtime supports it.
+     */
+    THREAD_PER_CONNECTION;
+
+    /**
+     * Method that shows enum list.
+     * @return enum list in string format.
+     */
+    public static String nameList() {
+        StringBuilder nameList = new StringBuilder();
+        for (ServerMode mode : values()) {
+            nameList.append(mode.name()).append(", ");
+        }
+        return nameList.substring(0, nameList.length() - 2);
+    }
+}
@@ -1,22 +1,50 @@
 package server.commands;
 
+import common.data.SpaceMarine;
+import server.utility.ResponseOutputter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
 /**
  * The AbstractCommand class is an abstract class that implements the ICommand interface.
- * It has two fields: name and description.
+ * It has three fields: name, description and readOnly.
  * It has two methods: getName and getDescription.
- * It has one constructor: AbstractCommand(String name, String description).
+ * It has two constructors: AbstractCommand(String name, String description) and AbstractCommand(String name, String description, boolean readOnly).
  * It has one toString method: toString().
  * It has one hashCode method: hashCode().
  * It has one equals method: equals(Object obj).
  */
 public abstract class AbstractCommand implements ICommand {
+    /**
+     * Number of space marines from which their text is built on several cores, also the size of a rendered chunk.
+     * Only the first rendering of a space marine is worth spreading, later its kept text is just copied.
+     */
+    private static final int PARALLEL_RENDER_THRESHOLD = 4096;
+
     private final String name;
     private final String description;
+    private final boolean readOnly;
 
     public AbstractCommand(String name, String description) {
+        this(name, description, false);
+    }
+
+    /**
+     * @param readOnly True if the command does not change the collection.
+     */
+    public AbstractCommand(String name, String description, boolean readOnly) {
         this.name = name;
         this.description = description;
+        this.readOnly = readOnly;
+    }
 
+    @Override
+    public boolean isReadOnly() {
+        return readOnly;
     }
 
     /**
@@ -73,4 +101,39 @@ public abstract class AbstractCommand implements ICommand {
         AbstractCommand other = (AbstractCommand) obj;
         return name.equals(other.name) && description.equals(other.description);
     }
+
+    /**
+     * Appends space marines to the output, each followed by a separator line.
+     * Small results, and all results on a single core, are rendered straight into the output buffer.
+     * Large results are rendered chunk by chunk on all cores, the texts of a chunk keep the given order.
+     *
+     * @param spaceMarines Space marines to append.
+     * @param outputter Output of the request.
+     */
+    protected static void appendSpaceMarines(Collection<SpaceMarine> spaceMarines, ResponseOutputter outputter) {
+        if (spaceMarines.size() < PARALLEL_RENDER_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            for (SpaceMarine spaceMarine : spaceMarines) {
+                outputter.appendLn(spaceMarine);
+                outputter.appendLn("===============");
+            }
+            return;
+        }
+        List<SpaceMarine> chunk = new ArrayList<>(PARALLEL_RENDER_THRESHOLD);
+        for (SpaceMarine spaceMarine : spaceMarines) {
+            chunk.add(spaceMarine);
+            if (chunk.size() == PARALLEL_RENDER_THRESHOLD) {
+                appendChunk(chunk, outputter);
+                chunk.clear();
+            }
+        }
+        appendChunk(chunk, outputter);
+    }
+
+    private static void appendChunk(List<SpaceMarine> chunk, ResponseOutputter outputter) {
+        List<String> texts = chunk.parallelStream().map(SpaceMarine::toString).collect(Collectors.toList());
+        for (String text : texts) {
+            outputter.appendLn(text);
+            outputter.appendLn("===============");
+        }
+    }
 }
@@ -3,6 +3,7 @@ package server.commands;
 
 
 import common.data.SpaceMarine;
+import common.exceptions.IdReservationException;
 import common.exceptions.IncorrectInputInScriptException;
 import common.exceptions.WrongAmountOfArgumentsException;
 import common.utility.Outputter;
@@ -30,19 +31,23 @@ public class AddElementCommand extends AbstractCommand{
      * Adds element from user input.
      *
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             if (!(argument instanceof SpaceMarine)) throw new WrongAmountOfArgumentsException();
             SpaceMarine smArg = (SpaceMarine) argument;
             smArg.setId(collectionManager.generateNewIdForCollection());
             collectionManager.addToCollection((SpaceMarine) argument);
-            ResponseOutputter.appendLn("Space marine was added successfully!");
+            outputter.appendLn("Space marine was added successfully!");
             return true;
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendLn(e.getMessage());
+            outputter.appendLn(e.getMessage());
+            return false;
+        } catch (IdReservationException e) {
+            outputter.appendError("New ids can't be reserved, the space marine was not added!");
             return false;
         }
     }
@@ -3,6 +3,7 @@ package server.commands;
 
 
 import common.data.SpaceMarine;
+import common.exceptions.IdReservationException;
 import common.exceptions.IncorrectInputInScriptException;
 import common.exceptions.WrongAmountOfArgumentsException;
 import common.utility.Outputter;
@@ -10,8 +11,6 @@ import server.utility.CollectionManager;
 import server.utility.ResponseOutputter;
 
 import java.io.Serializable;
-import java.util.Comparator;
-import java.util.NoSuchElementException;
 
 /**
  * Command for adding element to collection if its value is more than max in the collection.
@@ -31,32 +30,33 @@ public class AddIfMaxCommand extends AbstractCommand{
      * Adds asked element if its value is more than collections max object.
      *
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             if(!(argument instanceof SpaceMarine)) throw new WrongAmountOfArgumentsException();
             SpaceMarine askedMarine = (SpaceMarine) argument;
             if (collectionManager.getSize() == 0) {
                 askedMarine.setId(collectionManager.generateNewIdForCollection());
                 collectionManager.addToCollection(askedMarine);
-                ResponseOutputter.appendLn("Space marine was added successfully");
+                outputter.appendLn("Space marine was added successfully");
                 return true;
             }
-            SpaceMarine maxSpaceMarine = collectionManager.getSpaceMarineCollection()
-                    .stream()
-                    .max(Comparator.comparing(SpaceMarine::getHeight))
-                    .orElseThrow(NoSuchElementException::new);
+            SpaceMarine maxSpaceMarine = collectionManager.getMax();
             if(askedMarine.compareTo(maxSpaceMarine) > 0) {
                 askedMarine.setId(collectionManager.generateNewIdForCollection());
                 collectionManager.addToCollection(askedMarine);
-                ResponseOutputter.appendLn("Space marine added successfully");
+                outputter.appendLn("Space marine added successfully");
             } else {
-                ResponseOutputter.appendLn("Height is not enough to add!");
+                outputter.appendLn("Height is not enough to add!");
             }
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendLn(e.getMessage());
+            outputter.appendLn(e.getMessage());
+            return false;
+        } catch (IdReservationException e) {
+            outputter.appendError("New ids can't be reserved, the space marine was not added!");
             return false;
         }
         return false;
@@ -12,19 +12,19 @@ import java.io.Serializable;
  */
 public class ExecuteScriptCommand extends AbstractCommand {
     public ExecuteScriptCommand() {
-        super("execute", "Executes a script from given file");
+        super("execute", "Executes a script from given file", true);
     }
 
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             String strarg = (String) argument;
             if (strarg.isEmpty()) throw new WrongAmountOfArgumentsException();
-            ResponseOutputter.appendLn("Execute script '" + strarg + "'...");
+            outputter.appendLn("Execute script '" + strarg + "'...");
             return true;
         } catch (WrongAmountOfArgumentsException exception) {
-            ResponseOutputter.appendLn("Usage: '" + getName() + " " + "<Script name>" + "'");
+            outputter.appendLn("Usage: '" + getName() + " " + "<Script name>" + "'");
         }
         return false;
     }
-    }
+}
@@ -14,21 +14,23 @@ public class ExitCommand extends AbstractCommand {
 
     /**
      * Exit the program
+     * The command runs under the write lock, which the shutdown hook needs to save the collection,
+     * so the exit is started in another thread and goes on once the command has released the lock.
      *
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             if (!(argument == null)) throw new WrongAmountOfArgumentsException();
-            ResponseOutputter.appendLn("Exiting the program...");
-            System.exit(0);
+            outputter.appendLn("Exiting the program...");
+            new Thread(() -> System.exit(0), "server-exit").start();
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendLn(e);
+            outputter.appendLn(e);
             return false;
         }
         return true;
     }
-
 }
@@ -2,7 +2,6 @@ package server.commands;
 
 
 import common.data.Chapter;
-import common.data.SpaceMarine;
 import common.exceptions.WrongAmountOfArgumentsException;
 import common.utility.Outputter;
 import server.utility.CollectionManager;
@@ -21,7 +20,7 @@ public class FilterByChapterCommand extends AbstractCommand{
      * @param collectionManager Collection manager for filter_by_chapter command.
      */
     public FilterByChapterCommand(CollectionManager collectionManager) {
-        super("filter_by_chapter", "Shows elements with chapter == input");
+        super("filter_by_chapter", "Shows elements with chapter == input", true);
         this.collectionManager = collectionManager;
     }
 
@@ -30,21 +29,18 @@ public class FilterByChapterCommand extends AbstractCommand{
      * Show filtered collection by chapter.
      *
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             if (!(argument instanceof Chapter)) throw new WrongAmountOfArgumentsException();
             Chapter askedChapter = (Chapter) argument;
-            for(SpaceMarine spaceMarine: collectionManager.getSpaceMarineCollection()) {
-                if (spaceMarine.getChapter().equals(askedChapter)) {
-                    ResponseOutputter.appendLn(spaceMarine.toString() + "\n===============");
-                }
-            }
+            appendSpaceMarines(collectionManager.getByChapter(askedChapter), outputter);
             return true;
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendError(e.getMessage());
+            outputter.appendError(e.getMessage());
             return false;
         }
     }
@@ -1,7 +1,6 @@
 package server.commands;
 
 
-import common.data.SpaceMarine;
 import common.exceptions.WrongAmountOfArgumentsException;
 import common.utility.Outputter;
 import server.utility.CollectionManager;
@@ -20,7 +19,7 @@ public class FilterLessThanHealthCommand extends AbstractCommand{
      * @param collectionManager Collection manager for filter_less_than command.
      */
     public FilterLessThanHealthCommand(CollectionManager collectionManager) {
-        super("filter_less_than_health", "Prints all space marines with health less than input");
+        super("filter_less_than_health", "Prints all space marines with health less than input", true);
         this.collectionManager = collectionManager;
     }
 
@@ -28,24 +27,23 @@ public class FilterLessThanHealthCommand extends AbstractCommand{
      * Show filtered elements that have less health than value.
      *
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             if (!(argument instanceof String)) throw new WrongAmountOfArgumentsException();
             String HealthAskedStr = (String) argument;
-            Integer healthAsked = Integer.parseInt(HealthAskedStr);
-            for(SpaceMarine spaceMarine: collectionManager.getSpaceMarineCollection()) {
-                if (spaceMarine.getHealth() < healthAsked) {
-                    ResponseOutputter.appendLn(spaceMarine + "\n===============");
-                }
-            }
+            int healthAsked = Integer.parseInt(HealthAskedStr);
+            appendSpaceMarines(collectionManager.getWithHealthLessThan(healthAsked), outputter);
             return true;
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendError(e.getMessage());
+            outputter.appendError(e.getMessage());
+            return false;
+        } catch (NumberFormatException e) {
+            outputter.appendError("Health must be Integer!");
             return false;
         }
     }
 }
-
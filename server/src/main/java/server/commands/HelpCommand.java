@@ -18,28 +18,29 @@ public class HelpCommand extends AbstractCommand {
      * @param commands
      */
     public HelpCommand(Map<String, ICommand> commands) {
-        super("help", "Displays help on available commands");
+        super("help", "Displays help on available commands", true);
         this.commands = commands;
     }
 
     /**
      * Show list of usage and description of all available commands.
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             String strarg = (String) argument;
             if (!(strarg.isEmpty())) throw new WrongAmountOfArgumentsException();
             for (String name : commands.keySet()) {
                 String value = commands.get(name).toString();
-                ResponseOutputter.appendLn(value);
+                outputter.appendLn(value);
             }
 
 
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendError(e.getMessage());
+            outputter.appendError(e.getMessage());
             return false;
         }
         return true;
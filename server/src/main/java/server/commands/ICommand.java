@@ -1,5 +1,7 @@
 package server.commands;
 
+import server.utility.ResponseOutputter;
+
 import java.io.Serializable;
 
 /**
@@ -13,9 +15,19 @@ public interface ICommand {
 
     /**
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return response of right execution.
      */
-    boolean execute(Serializable argument);
+    boolean execute(Serializable argument, ResponseOutputter outputter);
+
+    /**
+     * Commands that only read the collection run in parallel with each other and with the changing ones.
+     *
+     * @return True if the command does not change the collection.
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
 
 
 }
@@ -4,6 +4,7 @@ package server.commands;
 import common.exceptions.WrongAmountOfArgumentsException;
 import common.utility.Outputter;
 import server.utility.CollectionManager;
+import server.utility.RequestQueue;
 import server.utility.ResponseOutputter;
 
 import java.io.Serializable;
@@ -13,37 +14,49 @@ import java.io.Serializable;
  */
 public class InfoCommand extends AbstractCommand {
     CollectionManager collectionManager;
+    RequestQueue requestQueue;
 
     /**
      * Info command constructor
      * @param collectionManager Collection manager for info command.
      */
     public InfoCommand(CollectionManager collectionManager) {
-        super("info", "Displays information about Collection");
+        this(collectionManager, null);
+    }
+
+    /**
+     * Info command constructor
+     * @param collectionManager Collection manager for info command.
+     * @param requestQueue Queue of the server requests, null if the server has none.
+     */
+    public InfoCommand(CollectionManager collectionManager, RequestQueue requestQueue) {
+        super("info", "Displays information about Collection", true);
         this.collectionManager = collectionManager;
+        this.requestQueue = requestQueue;
     }
 
     /**
      * Shows information about collection.
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             String strarg = (String) argument;
             if (!(strarg.isEmpty())) throw new WrongAmountOfArgumentsException();
-            ResponseOutputter.appendLn("Collection used is: " + collectionManager.getSpaceMarineCollection()
-                    .getClass()
-                    .toString()
-                    .replace("class java.util.", ""));
-            ResponseOutputter.appendLn("Initialization time is: " + collectionManager.getCreationDate().toString());
-            ResponseOutputter.appendLn("Current size of collection is: " + collectionManager.getSize() + " elements");
+            outputter.appendLn("Collection used is: " + collectionManager.getCollectionType());
+            outputter.appendLn("Initialization time is: " + collectionManager.getCreationDate().toString());
+            outputter.appendLn("Current size of collection is: " + collectionManager.getSize() + " elements");
+            if (requestQueue != null) {
+                outputter.appendLn("Requests in the queue: " + requestQueue.getDepth() + " of " + requestQueue.getCapacity());
+                outputter.appendLn("Rejected requests: " + requestQueue.getRejectedCount());
+            }
             return true;
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendLn(e.getMessage());
+            outputter.appendLn(e.getMessage());
             return false;
         }
     }
-
 }
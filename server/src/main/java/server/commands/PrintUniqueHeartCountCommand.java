@@ -20,39 +20,36 @@ public class PrintUniqueHeartCountCommand extends  AbstractCommand{
      * @param collectionManager Collection manager for print_unique_heart_count command.
      */
     public PrintUniqueHeartCountCommand(CollectionManager collectionManager) {
-        super("print_unique_heart_count", "Shows space marines with unique heart count");
+        super("print_unique_heart_count", "Shows space marines with unique heart count", true);
         this.collectionManager = collectionManager;
     }
     /**
      * Shows space marines with unique heart count.
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             String strarg = (String) argument;
             if (!(strarg.isEmpty())) throw new WrongAmountOfArgumentsException();
-            if(collectionManager.getSpaceMarineCollection().isEmpty()){
-                ResponseOutputter.appendLn("Collection is empty!");
+            if(collectionManager.getSize() == 0){
+                outputter.appendLn("Collection is empty!");
                 return false;
             }
             for (int i = 1; i <= 3; i++ ) {
-                int finalI = i;
-                if (collectionManager.getSpaceMarineCollection()
-                        .stream()
-                        .filter(n -> n.getHeartCount() == finalI).count() == 1) {
-                    SpaceMarine spaceMarine = collectionManager.getSpaceMarineCollection()
-                            .stream()
-                            .filter(n -> n.getHeartCount() == finalI).findFirst().orElseThrow(UnknownError::new);
-                    ResponseOutputter.appendLn(spaceMarine.toString() + "\n===============");
+                SpaceMarine spaceMarine = collectionManager.getUniqueByHeartCount(i);
+                if (spaceMarine != null) {
+                    outputter.appendLn(spaceMarine);
+                    outputter.appendLn("===============");
                 }
             }
 
             return true;
 
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendError(e.getMessage());
+            outputter.appendError(e.getMessage());
             return false;
         }
     }
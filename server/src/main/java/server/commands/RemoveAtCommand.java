@@ -26,24 +26,25 @@ public class RemoveAtCommand extends AbstractCommand{
     /**
      * Removes element at index from collection.
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             if (argument == null) throw new WrongAmountOfArgumentsException();
             String argument_str = (String) argument;
             int index = Integer.parseInt(argument_str);
             collectionManager.removeAtIndex(index);
-            ResponseOutputter.appendLn("Successfully removed the element");
+            outputter.appendLn("Successfully removed the element");
             return true;
 
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendError(e.getMessage());
+            outputter.appendError(e.getMessage());
         } catch (IndexOutOfBoundsException e) {
-            ResponseOutputter.appendError("Index out of bounds!");
+            outputter.appendError("Index out of bounds!");
         } catch (NumberFormatException e) {
-            ResponseOutputter.appendError("The id value must be int!");
+            outputter.appendError("The id value must be int!");
         }
         return false;
     }
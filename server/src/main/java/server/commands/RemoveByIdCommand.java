@@ -27,25 +27,25 @@ public class RemoveByIdCommand extends AbstractCommand {
     /**
      * Removes element by id from collection.
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             if (argument == null) throw new WrongAmountOfArgumentsException();
             String argument_str = (String) argument;
             int id = Integer.parseInt(argument_str);
-            if (collectionManager.getById(id) == null) throw new MustNotBeEmptyException();
-            collectionManager.removeByIDFromCollection(id);
-            ResponseOutputter.appendLn("Successfully removed the element");
+            if (!collectionManager.removeByIDFromCollection(id)) throw new MustNotBeEmptyException();
+            outputter.appendLn("Successfully removed the element");
             return true;
 
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendError(e.getMessage());
+            outputter.appendError(e.getMessage());
         } catch (MustNotBeEmptyException e) {
-            ResponseOutputter.appendError("No space marine with this id");
+            outputter.appendError("No space marine with this id");
         } catch (NumberFormatException e) {
-            ResponseOutputter.appendError("The id value must be int!");
+            outputter.appendError("The id value must be int!");
         }
         return false;
     }
@@ -10,7 +10,6 @@ import server.utility.CollectionManager;
 import server.utility.ResponseOutputter;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 
 /**
  * Command that removes all elements greater than inputted.
@@ -29,26 +28,18 @@ public class RemoveGreaterCommand extends AbstractCommand{
     /**
      * Removes all elements greater than inputted.
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
-            if(!(argument instanceof SpaceMarine || argument == null)) throw new WrongAmountOfArgumentsException();
-            int counter = 0;
-            SpaceMarine greaterSpaceMarine = (SpaceMarine) argument;
-            ArrayList<SpaceMarine> tempList = new ArrayList<>();
-            for (SpaceMarine spaceMarine: collectionManager.getSpaceMarineCollection()) {
-                if(spaceMarine.compareTo(greaterSpaceMarine) > 0) {
-                    tempList.add(spaceMarine);
-                    counter++;
-                }
-            }
-            collectionManager.getSpaceMarineCollection().removeAll(tempList);
-            ResponseOutputter.appendLn("Removed "+ counter + " Space marines" );
+            if(!(argument instanceof SpaceMarine)) throw new WrongAmountOfArgumentsException();
+            int counter = collectionManager.removeGreater((SpaceMarine) argument);
+            outputter.appendLn("Removed "+ counter + " Space marines" );
             return true;
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendError(e.getMessage());
+            outputter.appendError(e.getMessage());
             return false;
         }
     }
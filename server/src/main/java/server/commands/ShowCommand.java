@@ -8,6 +8,7 @@ import server.utility.CollectionManager;
 import server.utility.ResponseOutputter;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Command that displays collection elements for user.
@@ -20,32 +21,30 @@ public class ShowCommand extends AbstractCommand {
      * @param collectionManager Collection manager for show command.
      */
     public ShowCommand(CollectionManager collectionManager) {
-        super("show", "Displays collection elements as Strings");
+        super("show", "Displays collection elements as Strings", true);
         this.collectionManager = collectionManager;
     }
     /**
      * Displays collection.
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
         try {
             String strarg = (String) argument;
             if (!(strarg.isEmpty())) throw new WrongAmountOfArgumentsException();
-            if (collectionManager.getSpaceMarineCollection().isEmpty()) {
-                ResponseOutputter.appendLn("Collection is empty.");
+            List<SpaceMarine> spaceMarines = collectionManager.getSpaceMarineCollection();
+            if (spaceMarines.isEmpty()) {
+                outputter.appendLn("Collection is empty.");
             } else {
-                for (SpaceMarine spaceMarine : collectionManager.getSpaceMarineCollection()) {
-                    ResponseOutputter.appendLn(spaceMarine.toString() + "\n===============");
-
-                }
+                appendSpaceMarines(spaceMarines, outputter);
             }
             return true;
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendLn(e.getMessage());
+            outputter.appendLn(e.getMessage());
         }
         return false;
     }
-
 }
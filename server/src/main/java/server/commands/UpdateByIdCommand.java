@@ -29,29 +29,31 @@ public class UpdateByIdCommand extends AbstractCommand {
     /**
      * Updates element by id from user input.
      * @param argument The argument passed to the command.
+     * @param outputter Output of the request.
      * @return the response of right execution.
      */
     @Override
-    public boolean execute(Serializable argument) {
-        ResponseOutputter.appendError("Command needs 2 arguments!");
+    public boolean execute(Serializable argument, ResponseOutputter outputter) {
+        outputter.appendError("Command needs 2 arguments!");
         return false;
     }
 
-    public boolean execute(Serializable argument_id, Serializable argument_Marine) {
+    public boolean execute(Serializable argument_id, Serializable argument_Marine, ResponseOutputter outputter) {
         try {
             if (argument_id == null || argument_Marine == null) throw new WrongAmountOfArgumentsException();
             String argument_id_string = (String) argument_id;
             SpaceMarine argument_Marine_cast = (SpaceMarine) argument_Marine;
             long id = Integer.parseInt(argument_id_string);
-            collectionManager.update(id, argument_Marine_cast);
-            ResponseOutputter.appendLn("Space marine updated successfully!");
+            if (!collectionManager.update(id, argument_Marine_cast)) {
+                outputter.appendError("Element with this id does not exist!");
+                return false;
+            }
+            outputter.appendLn("Space marine updated successfully!");
             return true;
         } catch (WrongAmountOfArgumentsException e) {
-            ResponseOutputter.appendError(e.getMessage());
+            outputter.appendError(e.getMessage());
         } catch (NumberFormatException e) {
-            ResponseOutputter.appendError("id must be Integer!");
-        } catch (IndexOutOfBoundsException e) {
-            ResponseOutputter.appendError("Element with this id does not exist!");
+            outputter.appendError("id must be Integer!");
         }
         return false;
     }
@@ -0,0 +1,48 @@
+package server.utility;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool of the buffers used to build responses.
+ * Buffers start at the capacity of one chunk, a streamed buffer may grow once before it is sent.
+ * Buffers that have grown further are not kept, so memory is released after large responses.
+ */
+public class BufferPool {
+    private final ArrayBlockingQueue<StringBuilder> buffers;
+    private final int bufferCapacity;
+    private final int maxCapacity;
+
+    /**
+     * Buffer pool constructor.
+     *
+     * @param maxBuffers Number of buffers the pool keeps.
+     * @param bufferCapacity Capacity of a new buffer.
+     */
+    public BufferPool(int maxBuffers, int bufferCapacity) {
+        this.buffers = new ArrayBlockingQueue<>(maxBuffers);
+        this.bufferCapacity = bufferCapacity;
+        this.maxCapacity = 2 * bufferCapacity + 2;
+    }
+
+    /**
+     * Takes an empty buffer.
+     *
+     * @return Buffer from the pool or a new one if the pool is empty.
+     */
+    public StringBuilder acquire() {
+        StringBuilder buffer = buffers.poll();
+        return buffer != null ? buffer : new StringBuilder(bufferCapacity);
+    }
+
+    /**
+     * Returns a buffer to the pool.
+     * A StringBuilder grows to twice its capacity plus two, so a buffer that has grown once is still kept.
+     *
+     * @param buffer Buffer that is no longer used.
+     */
+    public void release(StringBuilder buffer) {
+        if (buffer.capacity() > maxCapacity) return;
+        buffer.setLength(0);
+        buffers.offer(buffer);
+    }
+}
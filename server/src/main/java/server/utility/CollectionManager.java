@@ -1,24 +1,47 @@
 package server.utility;
 
 
+import common.data.Chapter;
 import common.data.SpaceMarine;
+import common.exceptions.IdReservationException;
 import server.App;
 
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Collection manager.
- * Collection used is LinkedList
+ * Collection used is IndexedSequence, it keeps the insertion order and finds elements by position in logarithmic time.
+ * Hash indexes from id find, replace and remove elements by id without walking the sequence.
+ * Secondary indexes answer queries by other fields without walking the sequence either.
  * Elements are of class Space marine
+ * Every change publishes a new version of the collection, readers of the whole collection take a snapshot of
+ * the current version without any lock, so long scans never hold off writers and writers never wait for them.
+ * Lookups through the indexes take the read lock, changes take the write lock, so writers run alone.
+ * Commands that change the collection in several calls hold the write lock for the whole command.
  */
 public class CollectionManager {
-    public LinkedList<SpaceMarine> spaceMarineCollection;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IndexedSequence<SpaceMarine> spaceMarineCollection;
+    private final HashMap<Long, SpaceMarine> idIndex = new HashMap<>();
+    private final HashMap<Long, Long> sequenceKeys = new HashMap<>();
+    private final SortedIndex<Long> heightIndex = new SortedIndex<>(SpaceMarine::getHeight, SpaceMarine::compareHeights);
+    private final HashIndex<Chapter> chapterIndex = new HashIndex<>(SpaceMarine::getChapter);
+    private final SortedIndex<Integer> healthIndex = new SortedIndex<>(SpaceMarine::getHealth,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+    private final HashIndex<Long> heartCountIndex = new HashIndex<>(SpaceMarine::getHeartCount);
     private LocalDateTime lastInitTime;
     private LocalDateTime lastSaveTime;
     private final ZonedDateTime creationDate;
     private FileManager collectionFileManager;
+    private IdGenerator idGenerator;
 
 
     /**
@@ -27,13 +50,29 @@ public class CollectionManager {
     public CollectionManager(FileManager fileManager) {
         this.lastInitTime = null;
         this.lastSaveTime = null;
-        spaceMarineCollection = new LinkedList<>();
+        spaceMarineCollection = new IndexedSequence<>();
         creationDate = ZonedDateTime.now();
         this.collectionFileManager = fileManager;
 
         loadCollection();
     }
 
+    /**
+     * Read lock getter.
+     * @return Lock shared by the commands that only read the collection.
+     */
+    public Lock getReadLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Write lock getter.
+     * @return Lock held alone by the commands that change the collection.
+     */
+    public Lock getWriteLock() {
+        return lock.writeLock();
+    }
+
     /**
      * Creation date getter.
      * @return Creation date of collection manager.
@@ -44,18 +83,39 @@ public class CollectionManager {
 
     /**
      * Get collection.
-     * @return Linked list of space marines.
+     * Takes no lock and may be read by any thread, later changes are not seen.
+     * @return Read-only snapshot of the space marines in insertion order.
      */
-    public LinkedList<SpaceMarine> getSpaceMarineCollection() {
-        return spaceMarineCollection;
+    public List<SpaceMarine> getSpaceMarineCollection() {
+        return spaceMarineCollection.snapshot();
     }
 
     /**
      * Collection setter
-     * @param spaceMarineCollection Space marines linked list.
+     * @param spaceMarines Space marines in insertion order.
      */
-    public void setSpaceMarineCollection(LinkedList<SpaceMarine> spaceMarineCollection) {
-        this.spaceMarineCollection = spaceMarineCollection;
+    public void setSpaceMarineCollection(Collection<SpaceMarine> spaceMarines) {
+        lock.writeLock().lock();
+        try {
+            spaceMarineCollection.clear();
+            idIndex.clear();
+            sequenceKeys.clear();
+            heightIndex.clear();
+            chapterIndex.clear();
+            healthIndex.clear();
+            heartCountIndex.clear();
+            for (SpaceMarine spaceMarine : spaceMarines) addToCollection(spaceMarine);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get type of the collection.
+     * @return Name of the class that stores the collection.
+     */
+    public String getCollectionType() {
+        return spaceMarineCollection.getClass().getSimpleName();
     }
 
     /**
@@ -64,10 +124,12 @@ public class CollectionManager {
      * @return Returns space marine with given id.
      */
     public SpaceMarine getById(long id) {
-        for(SpaceMarine spaceMarine: spaceMarineCollection)  {
-            if(spaceMarine.getId() == id) return spaceMarine;
+        lock.readLock().lock();
+        try {
+            return idIndex.get(id);
+        } finally {
+            lock.readLock().unlock();
         }
-        return null;
     }
 
     /**
@@ -80,14 +142,12 @@ public class CollectionManager {
 
     /**
      * Generates id for new element.
+     * Ids are never reused, not even ids of removed elements or ids given out before a restart.
      * @return generated id
+     * @throws IdReservationException If no id can be reserved.
      */
-    public long generateNewIdForCollection() {
-        long id = spaceMarineCollection.stream()
-                .mapToLong(SpaceMarine::getId)
-                .filter(organization -> organization >= 0)
-                .max().orElse(0);
-        return id + 1;
+    public long generateNewIdForCollection() throws IdReservationException {
+        return idGenerator.next();
     }
 
     /**
@@ -95,19 +155,39 @@ public class CollectionManager {
      * @param spaceMarine element that needs to be added
      */
     public void addToCollection(SpaceMarine spaceMarine) {
-        spaceMarineCollection.add(spaceMarine);
+        lock.writeLock().lock();
+        try {
+            spaceMarine.setChapter(canonicalChapter(spaceMarine.getChapter()));
+            long key = spaceMarineCollection.append(spaceMarine);
+            idIndex.put(spaceMarine.getId(), spaceMarine);
+            sequenceKeys.put(spaceMarine.getId(), key);
+            addToIndexes(spaceMarine, key);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
      * Update element by id
+     * The new element takes the id and the place of the old one.
      * @param id id that needs to be updated
      * @param spaceMarine new element
+     * @return False if there is no element with this id.
      */
-    public void update(long id, SpaceMarine spaceMarine)  {
-        int index = spaceMarineCollection.indexOf(getById(id));
-        spaceMarineCollection.set(index, spaceMarine);
-
-
+    public boolean update(long id, SpaceMarine spaceMarine) {
+        lock.writeLock().lock();
+        try {
+            Long key = sequenceKeys.get(id);
+            if (key == null) return false;
+            spaceMarine.setId(id);
+            removeFromIndexes(idIndex.put(id, spaceMarine), key);
+            spaceMarine.setChapter(canonicalChapter(spaceMarine.getChapter()));
+            spaceMarineCollection.replace(key, spaceMarine);
+            addToIndexes(spaceMarine, key);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -115,33 +195,147 @@ public class CollectionManager {
      * @param spaceMarine element that needs to be removed.
      */
     public void removeFromCollection(SpaceMarine spaceMarine) {
-        spaceMarineCollection.remove(spaceMarine);
+        lock.writeLock().lock();
+        try {
+            if (idIndex.get(spaceMarine.getId()) == spaceMarine) removeByIDFromCollection(spaceMarine.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
      * Remove element from collection by id.
      * @param id id of element to remove
+     * @return False if there is no element with this id.
      */
-    public void removeByIDFromCollection(int id) {
-        spaceMarineCollection.stream()
-                .filter(organization -> organization.getId() == id)
-                .findFirst()
-                .ifPresent(this::removeFromCollection);
+    public boolean removeByIDFromCollection(long id) {
+        lock.writeLock().lock();
+        try {
+            Long key = sequenceKeys.remove(id);
+            if (key == null) return false;
+            removeFromIndexes(idIndex.remove(id), key);
+            spaceMarineCollection.removeKey(key);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove elements that are greater than the given one.
+     * @param spaceMarine Element to compare with.
+     * @return Number of removed elements.
+     */
+    public int removeGreater(SpaceMarine spaceMarine) {
+        lock.writeLock().lock();
+        try {
+            List<SpaceMarine> greater = heightIndex.tail(spaceMarine.getHeight(), false);
+            for (SpaceMarine removed : greater) removeByIDFromCollection(removed.getId());
+            return greater.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the greatest element.
+     * @return Element with the greatest height, null if the collection is empty.
+     */
+    public SpaceMarine getMax() {
+        lock.readLock().lock();
+        try {
+            return heightIndex.last();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Remove element from collection by index.
      * @param index Index of a space marine that needs to be removed.
+     * @throws IndexOutOfBoundsException If there is no element at this index.
      */
     public void removeAtIndex(int index) {
-        spaceMarineCollection.remove(index);
+        lock.writeLock().lock();
+        try {
+            SpaceMarine removed = spaceMarineCollection.remove(index);
+            idIndex.remove(removed.getId());
+            removeFromIndexes(removed, sequenceKeys.remove(removed.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get elements of a chapter.
+     * @param chapter Chapter of the elements.
+     * @return Elements of the chapter in the order of the collection.
+     */
+    public List<SpaceMarine> getByChapter(Chapter chapter) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(chapterIndex.get(chapter));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get elements with health less than the given value.
+     * @param health Upper bound of health, not included.
+     * @return Elements in the order of health, elements with equal health in the order of the collection.
+     */
+    public List<SpaceMarine> getWithHealthLessThan(int health) {
+        lock.readLock().lock();
+        try {
+            return healthIndex.head(health, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the only element with the given heart count.
+     * @param heartCount Heart count of the element.
+     * @return The element, null if no element or more than one element has this heart count.
+     */
+    public SpaceMarine getUniqueByHeartCount(long heartCount) {
+        lock.readLock().lock();
+        try {
+            return heartCountIndex.count(heartCount) == 1 ? heartCountIndex.first(heartCount) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The chapter index serves as the chapter dictionary: space marines of one chapter share one Chapter instance,
+     * so the collection keeps a single copy of every chapter however many lines repeat it.
+     */
+    private Chapter canonicalChapter(Chapter chapter) {
+        SpaceMarine sameChapter = chapterIndex.first(chapter);
+        return sameChapter == null ? chapter : sameChapter.getChapter();
+    }
+
+    private void addToIndexes(SpaceMarine spaceMarine, long key) {
+        heightIndex.add(spaceMarine, key);
+        chapterIndex.add(spaceMarine, key);
+        healthIndex.add(spaceMarine, key);
+        heartCountIndex.add(spaceMarine, key);
+    }
+
+    private void removeFromIndexes(SpaceMarine spaceMarine, long key) {
+        heightIndex.remove(spaceMarine, key);
+        chapterIndex.remove(spaceMarine, key);
+        healthIndex.remove(spaceMarine, key);
+        heartCountIndex.remove(spaceMarine, key);
     }
 
     /**
      * Saves the collection to file.
      */
     public void saveCollection() {
-        collectionFileManager.saveCollection(spaceMarineCollection);
+        collectionFileManager.saveCollection(spaceMarineCollection.snapshot());
         lastSaveTime = LocalDateTime.now();
         App.logger.info("Collection saved successfully");
     }
@@ -150,7 +344,8 @@ public class CollectionManager {
      * Loads the collection from file.
      */
     private void loadCollection() {
-        spaceMarineCollection = collectionFileManager.readCollection();
+        setSpaceMarineCollection(collectionFileManager.readCollection());
+        idGenerator = new IdGenerator(collectionFileManager, collectionFileManager.getMaxId());
         lastInitTime = LocalDateTime.now();
         App.logger.info("Collection loaded successfully");
     }
@@ -12,11 +12,20 @@ public class CommandManager {
     private LinkedList<String> commandHistory;
 
     public CommandManager (CollectionManager collectionManager) {
+        this(collectionManager, null);
+    }
+
+    /**
+     * Command manager constructor.
+     * @param collectionManager Collection manager for the commands.
+     * @param requestQueue Queue of the requests whose state is shown by the info command, may be null.
+     */
+    public CommandManager (CollectionManager collectionManager, RequestQueue requestQueue) {
         commandHistory = new LinkedList<String>();
         this.collectionManager = collectionManager;
         commands = new HashMap<>();
         commands.put("help", new HelpCommand(this.commands));
-        commands.put("info", new InfoCommand(this.collectionManager));
+        commands.put("info", new InfoCommand(this.collectionManager, requestQueue));
         commands.put("add", new AddElementCommand(this.collectionManager));
         commands.put("show", new ShowCommand(this.collectionManager));
         commands.put("update", new UpdateByIdCommand(this.collectionManager));
@@ -33,7 +42,7 @@ public class CommandManager {
 
     }
 
-    public void addToHistory(String CommandName) {
+    public synchronized void addToHistory(String CommandName) {
         commandHistory.addFirst(CommandName);
         if (commandHistory.size() > 5) commandHistory.pollLast();
     }
@@ -5,21 +5,36 @@ import common.data.Chapter;
 import common.data.Coordinates;
 import common.data.MeleeWeapon;
 import common.data.SpaceMarine;
+import common.exceptions.IdReservationException;
 import common.exceptions.NotUniqueIdException;
 import common.utility.Outputter;
+import server.App;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Scanner;
 import java.util.Set;
 
 public class FileManager {
+    /**
+     * Suffix of the file next to the collection file that keeps the reserved ids.
+     */
+    private static final String ID_FILE_SUFFIX = ".seq";
     public String fileName;
     public String splitChar;
+    private long maxId;
 
     /**
      * File manager constructor.
@@ -41,11 +56,21 @@ public class FileManager {
         this.fileName = fileName;
     }
 
+    /**
+     * Largest id getter.
+     * @return Largest id of the last read collection, 0 if it was empty.
+     */
+    public long getMaxId() {
+        return maxId;
+    }
+
     /**
      * Reads collection from a csv file
+     * Remembers the largest id to seed the id generator.
      * @return returns a collection of elements that were successfully parsed.
      */
     public LinkedList<SpaceMarine> readCollection() {
+        maxId = 0;
         if(!fileName.isEmpty()) {
             LinkedList<SpaceMarine> result = new LinkedList<>();
             int trashCounter = 0;
@@ -81,6 +106,7 @@ public class FileManager {
                             spaceMarine.setMeleeWeapon(MeleeWeapon.valueOf(lineArr[8].toUpperCase()));
                             spaceMarine.setChapter(new Chapter(lineArr[9], lineArr[10]));
                             result.add(spaceMarine);
+                            maxId = Math.max(maxId, spaceMarine.getId());
                         } catch (DateTimeParseException | NumberFormatException e) {
                             Outputter.printError("Can't parse data in line " + linenum + "!");
                             trashCounter++;
@@ -108,7 +134,7 @@ public class FileManager {
      * Saves collection of elements to a csv file
      * @param spaceMarines
      */
-    public void saveCollection(LinkedList<SpaceMarine> spaceMarines) {
+    public void saveCollection(Collection<SpaceMarine> spaceMarines) {
         if(!fileName.isEmpty()) {
             File file = new File(fileName);
             String resultCSV = "";
@@ -140,4 +166,45 @@ public class FileManager {
 
     }
 
+    /**
+     * Reads the largest reserved id from the id file.
+     * @return Largest id ever reserved, 0 if there is no id file.
+     * @throws IdReservationException If the id file exists but can not be read.
+     */
+    public long readReservedId() throws IdReservationException {
+        if (fileName.isEmpty()) return 0;
+        Path idFile = Paths.get(fileName + ID_FILE_SUFFIX);
+        if (!Files.exists(idFile)) return 0;
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(idFile), StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            Outputter.printError("Can't read reserved ids from " + idFile + "!");
+            App.logger.severe("Can't read reserved ids from " + idFile + "!");
+            throw new IdReservationException();
+        }
+    }
+
+    /**
+     * Saves the largest reserved id to the id file.
+     * The new file is forced to disk and then replaces the old one at once, so it is never left half-written.
+     * @param reservedId Largest reserved id.
+     * @throws IdReservationException If the id file can not be written.
+     */
+    public void saveReservedId(long reservedId) throws IdReservationException {
+        if (fileName.isEmpty()) return;
+        Path idFile = Paths.get(fileName + ID_FILE_SUFFIX);
+        Path tempFile = Paths.get(fileName + ID_FILE_SUFFIX + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(Long.toString(reservedId).getBytes(StandardCharsets.UTF_8)));
+                channel.force(true);
+            }
+            Files.move(tempFile, idFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Outputter.printError("Can't save reserved ids to " + idFile + "!");
+            App.logger.severe("Can't save reserved ids to " + idFile + "!");
+            throw new IdReservationException();
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package server.utility;
+
+import common.data.SpaceMarine;
+
+import java.util.HashMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index of space marines by a field that is only looked up by equal values.
+ *
+ * @param <K> Type of the indexed field, must implement hashCode consistently with equals.
+ */
+public class HashIndex<K> extends SecondaryIndex<K> {
+    /**
+     * Hash index constructor.
+     *
+     * @param keyExtractor Takes the indexed field from a space marine.
+     */
+    public HashIndex(Function<SpaceMarine, K> keyExtractor) {
+        super(new HashMap<>(), keyExtractor);
+    }
+}
@@ -0,0 +1,65 @@
+package server.utility;
+
+import common.exceptions.IdReservationException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of ids for new elements.
+ * Ids grow monotonically and are never given out twice, not even after a restart:
+ * before an id is given out, a block of ids including it is reserved in the id file.
+ * If the id file can not be read or written, no id is given out.
+ */
+public class IdGenerator {
+    /**
+     * Number of ids reserved with one write of the id file.
+     */
+    private static final long RESERVATION_BLOCK = 1024;
+
+    private final FileManager fileManager;
+    private final AtomicLong lastId;
+    private final boolean idFileReadable;
+    private volatile long reservedUpTo;
+
+    /**
+     * Id generator constructor.
+     *
+     * @param fileManager File manager that stores the reserved ids.
+     * @param maxLoadedId Largest id of the loaded collection.
+     */
+    public IdGenerator(FileManager fileManager, long maxLoadedId) {
+        this.fileManager = fileManager;
+        long reservedId;
+        boolean readable;
+        try {
+            reservedId = fileManager.readReservedId();
+            readable = true;
+        } catch (IdReservationException exception) {
+            reservedId = 0;
+            readable = false;
+        }
+        this.idFileReadable = readable;
+        this.lastId = new AtomicLong(Math.max(maxLoadedId, reservedId));
+        this.reservedUpTo = lastId.get();
+    }
+
+    /**
+     * Gives out the next id.
+     *
+     * @return Id that has never been given out.
+     * @throws IdReservationException If the id could not be reserved in the id file.
+     */
+    public long next() throws IdReservationException {
+        if (!idFileReadable) throw new IdReservationException();
+        long id = lastId.incrementAndGet();
+        if (id > reservedUpTo) reserve(id);
+        return id;
+    }
+
+    private synchronized void reserve(long id) throws IdReservationException {
+        if (id <= reservedUpTo) return;
+        long upTo = id + RESERVATION_BLOCK - 1;
+        fileManager.saveReservedId(upTo);
+        reservedUpTo = upTo;
+    }
+}
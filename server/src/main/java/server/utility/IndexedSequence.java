@@ -0,0 +1,238 @@
+package server.utility;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sequence of elements in insertion order with access by position in logarithmic time.
+ * Elements are kept in a treap ordered by the key every element gets when it is appended,
+ * every node knows the size of its subtree, so positions are found without walking the sequence.
+ * Nodes are never changed, changes copy the path from the root instead,
+ * so an iterator keeps seeing the sequence as it was when the iterator was created.
+ * Every change publishes a new version of the sequence, a snapshot of the current version is taken in constant time
+ * and may be read by any thread without locking while the sequence keeps changing.
+ * Changes themselves must not run concurrently.
+ *
+ * @param <T> Type of the elements.
+ */
+public class IndexedSequence<T> extends AbstractList<T> {
+    private static final class Node<T> {
+        final long key;
+        final T value;
+        final int priority;
+        final Node<T> left;
+        final Node<T> right;
+        final int size;
+
+        Node(long key, T value, int priority, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node<T> with(Node<T> left, Node<T> right) {
+            return new Node<>(key, value, priority, left, right);
+        }
+    }
+
+    private volatile Node<T> root;
+    private long nextKey;
+
+    /**
+     * Creates an empty sequence.
+     */
+    public IndexedSequence() {
+    }
+
+    private IndexedSequence(Node<T> root, long nextKey) {
+        this.root = root;
+        this.nextKey = nextKey;
+    }
+
+    /**
+     * Takes the current version of the sequence.
+     *
+     * @return Read-only sequence that never sees later changes.
+     */
+    public List<T> snapshot() {
+        return Collections.unmodifiableList(new IndexedSequence<>(root, nextKey));
+    }
+
+    /**
+     * Appends an element to the end of the sequence.
+     *
+     * @param value Element to append.
+     * @return Key of the element, used to find it later.
+     */
+    public long append(T value) {
+        long key = nextKey++;
+        root = merge(root, new Node<>(key, value, ThreadLocalRandom.current().nextInt(), null, null));
+        modCount++;
+        return key;
+    }
+
+    /**
+     * Replaces the element with the given key, keeping its position.
+     *
+     * @param key Key of the element.
+     * @param value New element.
+     * @return False if there is no element with this key.
+     */
+    public boolean replace(long key, T value) {
+        Node<T> replaced = replace(root, key, value);
+        if (replaced == root) return false;
+        root = replaced;
+        return true;
+    }
+
+    /**
+     * Removes the element with the given key.
+     *
+     * @param key Key of the element.
+     * @return False if there is no element with this key.
+     */
+    public boolean removeKey(long key) {
+        Node<T> removed = removeKey(root, key);
+        if (removed == root) return false;
+        root = removed;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the element at the given position.
+     *
+     * @param index Position of the element.
+     * @return Removed element.
+     * @throws IndexOutOfBoundsException If there is no element at this position.
+     */
+    @Override
+    public T remove(int index) {
+        Node<T> current = root;
+        T value = get(current, index);
+        root = removeAt(current, index);
+        modCount++;
+        return value;
+    }
+
+    /**
+     * Takes the element at the given position.
+     *
+     * @param index Position of the element.
+     * @return Element at this position.
+     * @throws IndexOutOfBoundsException If there is no element at this position.
+     */
+    @Override
+    public T get(int index) {
+        return get(root, index);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    /**
+     * Iterates over the sequence as it is now, later changes are not seen.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        Node<T> snapshot = root;
+        return new Iterator<T>() {
+            private final ArrayDeque<Node<T>> path = new ArrayDeque<>();
+
+            {
+                pushLeft(snapshot);
+            }
+
+            private void pushLeft(Node<T> node) {
+                for (; node != null; node = node.left) path.push(node);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (path.isEmpty()) throw new NoSuchElementException();
+                Node<T> node = path.pop();
+                pushLeft(node.right);
+                return node.value;
+            }
+        };
+    }
+
+    private static <T> T get(Node<T> node, int index) {
+        if (index < 0 || index >= size(node)) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size(node));
+        while (true) {
+            int leftSize = size(node.left);
+            if (index == leftSize) return node.value;
+            if (index < leftSize) {
+                node = node.left;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) return left.with(left.left, merge(left.right, right));
+        return right.with(merge(left, right.left), right.right);
+    }
+
+    private static <T> Node<T> replace(Node<T> node, long key, T value) {
+        if (node == null) return null;
+        if (key < node.key) {
+            Node<T> left = replace(node.left, key, value);
+            return left == node.left ? node : node.with(left, node.right);
+        }
+        if (key > node.key) {
+            Node<T> right = replace(node.right, key, value);
+            return right == node.right ? node : node.with(node.left, right);
+        }
+        return new Node<>(key, value, node.priority, node.left, node.right);
+    }
+
+    private static <T> Node<T> removeKey(Node<T> node, long key) {
+        if (node == null) return null;
+        if (key < node.key) {
+            Node<T> left = removeKey(node.left, key);
+            return left == node.left ? node : node.with(left, node.right);
+        }
+        if (key > node.key) {
+            Node<T> right = removeKey(node.right, key);
+            return right == node.right ? node : node.with(node.left, right);
+        }
+        return merge(node.left, node.right);
+    }
+
+    private static <T> Node<T> removeAt(Node<T> node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) return node.with(removeAt(node.left, index), node.right);
+        if (index > leftSize) return node.with(node.left, removeAt(node.right, index - leftSize - 1));
+        return merge(node.left, node.right);
+    }
+}
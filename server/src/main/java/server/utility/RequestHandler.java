@@ -1,43 +1,116 @@
 package server.utility;
 
+import common.interaction.BatchRequest;
+import common.interaction.BatchResponse;
 import common.interaction.Request;
 import common.interaction.Response;
 import common.interaction.ResponseResult;
+import server.App;
 import server.commands.ICommand;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 public class RequestHandler {
+    private static final int POOLED_BUFFERS = 64;
     private final CommandManager commandManager;
+    private final BufferPool bufferPool = new BufferPool(POOLED_BUFFERS, ResponseOutputter.CHUNK_SIZE);
 
     public RequestHandler(CommandManager commandManager) {
         this.commandManager = commandManager;
     }
 
-    public Response handle(Request request){
+    /**
+     * Handles a request streaming its output to the client in chunks.
+     * A request that fails unexpectedly still gets an ERROR response, so the client never waits for it forever.
+     *
+     * @param request Request to handle.
+     * @param responseSink Receiver of the partial responses.
+     * @return Final response with the rest of the output and the result.
+     */
+    public Response handle(Request request, ResponseSink responseSink) {
+        ResponseOutputter.ChunkSink chunkSink = chunk -> responseSink.send(
+                new Response(request.getRequestId(), ResponseResult.OK, chunk, true));
+        try {
+            if (request instanceof BatchRequest) return handleBatch((BatchRequest) request, chunkSink);
+            return handleRequest(request, chunkSink);
+        } catch (RuntimeException exception) {
+            App.logger.severe("An error occurred while handling the request '" + request.getCommandName() + "': " + exception);
+            return new Response(request.getRequestId(), ResponseResult.ERROR,
+                    "error: An error occurred on the server while handling the request!\n");
+        }
+    }
+
+    /**
+     * Executes the requests of a batch in order.
+     * The whole output of every request is sent as partial responses of the batch
+     * before the next request runs, so the responses in the batch response carry only the results.
+     *
+     * @param batchRequest Batch to handle.
+     * @param chunkSink Receiver of the chunks.
+     * @return Response with a response for every executed request.
+     */
+    private Response handleBatch(BatchRequest batchRequest, ResponseOutputter.ChunkSink chunkSink) {
+        List<Response> responses = new ArrayList<>(batchRequest.getRequests().size());
+        try (ResponseOutputter outputter = new ResponseOutputter(bufferPool, chunkSink)) {
+            for (Request request : batchRequest.getRequests()) {
+                ResponseResult responseResult = execute(request, outputter);
+                outputter.sendAll();
+                Response response = new Response(request.getRequestId(), responseResult, outputter.getAndClear());
+                responses.add(response);
+                if (batchRequest.isStopOnError() && response.getResponseResult() != ResponseResult.OK) break;
+            }
+        }
+        return new BatchResponse(batchRequest.getRequestId(), responses);
+    }
+
+    private Response handleRequest(Request request, ResponseOutputter.ChunkSink chunkSink) {
+        try (ResponseOutputter outputter = new ResponseOutputter(bufferPool, chunkSink)) {
+            return new Response(request.getRequestId(), execute(request, outputter), outputter.getString());
+        }
+    }
+
+    private ResponseResult execute(Request request, ResponseOutputter outputter) {
         commandManager.addToHistory(request.getCommandName());
-        ResponseResult responseResult = executeCommand(
-                request.getCommandName(),
-                request.getCommandArgument());
-        return new Response(responseResult, ResponseOutputter.getAndClear());
+        try {
+            return executeCommand(
+                    request.getCommandName(),
+                    request.getCommandArgument(),
+                    outputter);
+        } catch (RuntimeException exception) {
+            App.logger.severe("An error occurred while executing the command '" + request.getCommandName() + "': " + exception);
+            outputter.appendError("An error occurred on the server while executing the command!");
+            return ResponseResult.ERROR;
+        }
     }
 
     /**
      * Executes a command from a request.
+     * Commands that only read the collection run without holding off anyone, commands that change it run alone.
      *
      * @param commandName Name of command.
      * @param commandArgument Serializable argument for command.
+     * @param outputter Output of the request.
      * @return Command execute status.
      */
-    public ResponseResult executeCommand(String commandName, Serializable commandArgument) {
+    public ResponseResult executeCommand(String commandName, Serializable commandArgument, ResponseOutputter outputter) {
         ICommand command = commandManager.commands.get(commandName);
         if(command == null){
-            ResponseOutputter.appendLn("Command '" + command + "' was not found. Try to write 'help' for more info.");
+            outputter.appendLn("Command '" + command + "' was not found. Try to write 'help' for more info.");
             return ResponseResult.ERROR;
         }
         else {
-            if(command.execute(commandArgument)) return ResponseResult.OK;
-            else return ResponseResult.ERROR;
+            if (command.isReadOnly()) return command.execute(commandArgument, outputter) ? ResponseResult.OK : ResponseResult.ERROR;
+            Lock writeLock = commandManager.collectionManager.getWriteLock();
+            writeLock.lock();
+            try {
+                if(command.execute(commandArgument, outputter)) return ResponseResult.OK;
+                else return ResponseResult.ERROR;
+            } finally {
+                writeLock.unlock();
+            }
         }
     }
 }
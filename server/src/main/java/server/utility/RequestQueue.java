@@ -0,0 +1,169 @@
+package server.utility;
+
+import common.interaction.Request;
+import common.interaction.Response;
+import common.interaction.ResponseResult;
+import server.App;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue of requests waiting for a worker thread.
+ * When the queue is full new requests are rejected at once instead of waiting.
+ */
+public class RequestQueue {
+    private final ExecutorService workers;
+    private final int capacity;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Request queue constructor.
+     *
+     * @param workerCount Number of worker threads.
+     * @param capacity Number of requests that may be queued or handled at the same time.
+     */
+    public RequestQueue(int workerCount, int capacity) {
+        this.capacity = capacity;
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "request-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Ordered lane of one connection.
+     * Requests of a lane are handled one after another in the order they were submitted.
+     * A request stays counted in the queue until its task, which sends the response, has finished.
+     * Once a request is rejected, every later request of the lane is rejected too until the rejected one
+     * is submitted again, so the client can send them all again without any of them overtaking the others.
+     */
+    public class Lane {
+        private static final long NOT_REJECTED = -1;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean running;
+        private long rejectedId = NOT_REJECTED;
+
+        /**
+         * Queues a task after the earlier tasks of this lane.
+         *
+         * @param requestId Id of the request the task handles, ids of a lane grow in the order requests are sent.
+         * @param task Task to run, it sends the response to the request itself.
+         * @return False if the task was rejected.
+         */
+        public boolean submit(long requestId, Runnable task) {
+            if (!admitInOrder(requestId)) return false;
+            synchronized (this) {
+                tasks.addLast(task);
+                if (running) return true;
+                running = true;
+            }
+            workers.execute(this::runNext);
+            return true;
+        }
+
+        private void runNext() {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.pollFirst();
+                if (task == null) {
+                    running = false;
+                    return;
+                }
+            }
+            try {
+                task.run();
+            } catch (RuntimeException exception) {
+                App.logger.severe("An error occurred while handling the request: " + exception);
+            } finally {
+                depth.decrementAndGet();
+            }
+            workers.execute(this::runNext);
+        }
+
+        /**
+         * Queues a task that computes a response after the earlier tasks of this lane.
+         *
+         * @param requestId Id of the request the task handles.
+         * @param task Task that handles the request and sends its response.
+         * @return Future response or null if the task was rejected.
+         */
+        public Future<Response> submit(long requestId, Callable<Response> task) {
+            FutureTask<Response> futureResponse = new FutureTask<>(task);
+            return submit(requestId, futureResponse) ? futureResponse : null;
+        }
+
+        private synchronized boolean admitInOrder(long requestId) {
+            if (rejectedId != NOT_REJECTED && requestId > rejectedId) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            if (!admit()) {
+                rejectedId = requestId;
+                return false;
+            }
+            rejectedId = NOT_REJECTED;
+            return true;
+        }
+    }
+
+    /**
+     * Creates a lane for a new connection.
+     *
+     * @return Empty lane.
+     */
+    public Lane newLane() {
+        return new Lane();
+    }
+
+    private boolean admit() {
+        if (depth.incrementAndGet() <= capacity) return true;
+        depth.decrementAndGet();
+        long rejected = rejectedCount.incrementAndGet();
+        App.logger.warning("Request rejected, the queue is full (" + capacity + " requests, "
+                + rejected + " rejected in total).");
+        return false;
+    }
+
+    /**
+     * Creates the response for a rejected request.
+     *
+     * @param request Rejected request.
+     * @return Response with the BUSY result.
+     */
+    public static Response busyResponse(Request request) {
+        return new Response(request.getRequestId(), ResponseResult.BUSY, "error: The server is busy, try again later.\n");
+    }
+
+    /**
+     * @return Number of requests queued or being handled.
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * @return Number of requests that may be queued or handled at the same time.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Number of requests rejected since the start.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Stops the worker threads after the queued requests are handled.
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -1,24 +1,83 @@
 package server.utility;
+
+import common.data.SpaceMarine;
+
+import java.io.IOException;
+
 /**
- * A class for generating responses to a client.
+ * A class for generating the response to one request.
+ * Every request gets its own outputter, so requests handled in parallel do not mix their output.
+ * While streaming, the buffer is sent to the client whenever it grows beyond one chunk.
  */
-public class ResponseOutputter {
-    private static final StringBuilder stringBuilder = new StringBuilder();
+public class ResponseOutputter implements AutoCloseable {
+    /**
+     * Number of characters after which a streamed buffer is sent.
+     */
+    public static final int CHUNK_SIZE = 16 * 1024;
+    private final BufferPool bufferPool;
+    private StringBuilder stringBuilder;
+    private ChunkSink chunkSink;
+
+    /**
+     * Receiver of the chunks of a streamed buffer.
+     */
+    public interface ChunkSink {
+        /**
+         * @param chunk Chunk of the output.
+         */
+        void send(String chunk) throws IOException;
+    }
+
+    /**
+     * Response outputter constructor.
+     *
+     * @param bufferPool Pool to take the buffer from and return it to.
+     * @param chunkSink Receiver of the chunks, null if the output is not streamed.
+     */
+    public ResponseOutputter(BufferPool bufferPool, ChunkSink chunkSink) {
+        this.bufferPool = bufferPool;
+        this.stringBuilder = bufferPool.acquire();
+        this.chunkSink = chunkSink;
+    }
+
+    /**
+     * Sends the buffer if streaming is on and the buffer has reached the chunk size.
+     * If the client can not be reached, the rest of the output is dropped.
+     */
+    private void sendFullChunk() {
+        if (stringBuilder.length() >= CHUNK_SIZE) sendAll();
+    }
+
+    /**
+     * Sends the whole buffer, however short, if streaming is on.
+     * If the client can not be reached, the rest of the output is dropped.
+     */
+    public void sendAll() {
+        if (chunkSink == null || stringBuilder.length() == 0) return;
+        try {
+            chunkSink.send(stringBuilder.toString());
+        } catch (IOException exception) {
+            chunkSink = chunk -> { };
+        }
+        stringBuilder.delete(0, stringBuilder.length());
+    }
 
     /**
      * Append object to out to the end of string.
      *
      * @param toOut Object to Out.
      */
-    public static void append(Object toOut) {
+    public void append(Object toOut) {
         stringBuilder.append(toOut);
+        sendFullChunk();
     }
 
     /**
      * Append line break to the end of string.
      */
-    public static void appendLn() {
+    public void appendLn() {
         stringBuilder.append("\n");
+        sendFullChunk();
     }
 
     /**
@@ -26,8 +85,21 @@ public class ResponseOutputter {
      *
      * @param toOut Object to Out.
      */
-    public static void appendLn(Object toOut) {
+    public void appendLn(Object toOut) {
         stringBuilder.append(toOut).append("\n");
+        sendFullChunk();
+    }
+
+    /**
+     * Append the text of a space marine and line break to the end of string.
+     * The text is rendered straight into the buffer instead of being built as a separate string.
+     *
+     * @param spaceMarine Space marine to out.
+     */
+    public void appendLn(SpaceMarine spaceMarine) {
+        spaceMarine.appendTo(stringBuilder);
+        stringBuilder.append("\n");
+        sendFullChunk();
     }
 
     /**
@@ -35,8 +107,9 @@ public class ResponseOutputter {
      *
      * @param toOut Error description.
      */
-    public static void appendError(Object toOut) {
+    public void appendError(Object toOut) {
         stringBuilder.append("error: ").append(toOut).append("\n");
+        sendFullChunk();
     }
 
     /**
@@ -45,8 +118,9 @@ public class ResponseOutputter {
      * @param element1 First element for the table.
      * @param element2 Second element for the table.
      */
-    public static void appendTable(Object element1, Object element2) {
+    public void appendTable(Object element1, Object element2) {
         stringBuilder.append(String.format("%-37s%-1s%n", element1, element2));
+        sendFullChunk();
     }
 
     /**
@@ -54,7 +128,7 @@ public class ResponseOutputter {
      *
      * @return Constructed string.
      */
-    public static String getString() {
+    public String getString() {
         return stringBuilder.toString();
     }
 
@@ -63,7 +137,7 @@ public class ResponseOutputter {
      *
      * @return Constructed string.
      */
-    public static String getAndClear() {
+    public String getAndClear() {
         String toReturn = stringBuilder.toString();
         stringBuilder.delete(0, stringBuilder.length());
         return toReturn;
@@ -72,7 +146,18 @@ public class ResponseOutputter {
     /**
      * clear the buffer.
      */
-    public static void clear() {
+    public void clear() {
         stringBuilder.delete(0, stringBuilder.length());
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the buffer to the pool.
+     * The outputter can not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (stringBuilder == null) return;
+        bufferPool.release(stringBuilder);
+        stringBuilder = null;
+    }
+}
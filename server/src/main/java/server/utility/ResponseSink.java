@@ -0,0 +1,17 @@
+package server.utility;
+
+import common.interaction.Response;
+
+import java.io.IOException;
+
+/**
+ * Receiver of the partial responses of a streamed request.
+ */
+public interface ResponseSink {
+    /**
+     * Sends a partial response to the client.
+     *
+     * @param partialResponse Chunk of the response body.
+     */
+    void send(Response partialResponse) throws IOException;
+}
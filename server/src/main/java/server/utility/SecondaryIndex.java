@@ -0,0 +1,100 @@
+package server.utility;
+
+import common.data.SpaceMarine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Index of space marines by one of their fields.
+ * Space marines with equal values are kept in one bucket ordered by their position key in the collection,
+ * so every bucket lists its space marines in the order of the collection.
+ *
+ * @param <K> Type of the indexed field.
+ */
+public abstract class SecondaryIndex<K> {
+    private final Map<K, TreeMap<Long, SpaceMarine>> buckets;
+    private final Function<SpaceMarine, K> keyExtractor;
+
+    /**
+     * Secondary index constructor.
+     *
+     * @param buckets Empty map to keep the buckets in.
+     * @param keyExtractor Takes the indexed field from a space marine.
+     */
+    protected SecondaryIndex(Map<K, TreeMap<Long, SpaceMarine>> buckets, Function<SpaceMarine, K> keyExtractor) {
+        this.buckets = buckets;
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * @param spaceMarine Space marine to add to the index.
+     * @param positionKey Key of the space marine in the collection sequence.
+     */
+    public void add(SpaceMarine spaceMarine, long positionKey) {
+        buckets.computeIfAbsent(keyExtractor.apply(spaceMarine), key -> new TreeMap<>()).put(positionKey, spaceMarine);
+    }
+
+    /**
+     * @param spaceMarine Space marine to remove from the index.
+     * @param positionKey Key of the space marine in the collection sequence.
+     */
+    public void remove(SpaceMarine spaceMarine, long positionKey) {
+        K key = keyExtractor.apply(spaceMarine);
+        TreeMap<Long, SpaceMarine> bucket = buckets.get(key);
+        if (bucket == null) return;
+        bucket.remove(positionKey);
+        if (bucket.isEmpty()) buckets.remove(key);
+    }
+
+    /**
+     * Removes all space marines from the index.
+     */
+    public void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Takes the space marines with the given value.
+     *
+     * @param key Value of the field.
+     * @return Space marines in the order of the collection.
+     */
+    public Collection<SpaceMarine> get(K key) {
+        TreeMap<Long, SpaceMarine> bucket = buckets.get(key);
+        return bucket == null ? Collections.emptyList() : Collections.unmodifiableCollection(bucket.values());
+    }
+
+    /**
+     * Counts the space marines with the given value.
+     *
+     * @param key Value of the field.
+     * @return Number of space marines with this value.
+     */
+    public int count(K key) {
+        TreeMap<Long, SpaceMarine> bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    /**
+     * Takes the first space marine with the given value.
+     *
+     * @param key Value of the field.
+     * @return First space marine in the collection with this value, null if there is none.
+     */
+    public SpaceMarine first(K key) {
+        TreeMap<Long, SpaceMarine> bucket = buckets.get(key);
+        return bucket == null ? null : bucket.firstEntry().getValue();
+    }
+
+    protected static List<SpaceMarine> collect(Collection<TreeMap<Long, SpaceMarine>> range) {
+        List<SpaceMarine> result = new ArrayList<>();
+        for (TreeMap<Long, SpaceMarine> bucket : range) result.addAll(bucket.values());
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package server.utility;
+
+import common.data.SpaceMarine;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index of space marines ordered by one of their fields.
+ *
+ * @param <K> Type of the indexed field.
+ */
+public class SortedIndex<K> extends SecondaryIndex<K> {
+    private final TreeMap<K, TreeMap<Long, SpaceMarine>> sortedBuckets;
+
+    /**
+     * Sorted index constructor.
+     *
+     * @param keyExtractor Takes the indexed field from a space marine.
+     * @param comparator Order of the field values, must accept null if the field may be null.
+     */
+    public SortedIndex(Function<SpaceMarine, K> keyExtractor, Comparator<? super K> comparator) {
+        this(new TreeMap<>(comparator), keyExtractor);
+    }
+
+    private SortedIndex(TreeMap<K, TreeMap<Long, SpaceMarine>> sortedBuckets, Function<SpaceMarine, K> keyExtractor) {
+        super(sortedBuckets, keyExtractor);
+        this.sortedBuckets = sortedBuckets;
+    }
+
+    /**
+     * Takes a space marine with the greatest value.
+     *
+     * @return First space marine in the collection among those with the greatest value, null if the index is empty.
+     */
+    public SpaceMarine last() {
+        Map.Entry<K, TreeMap<Long, SpaceMarine>> lastEntry = sortedBuckets.lastEntry();
+        return lastEntry == null ? null : lastEntry.getValue().firstEntry().getValue();
+    }
+
+    /**
+     * Takes the space marines with values greater than the given one.
+     *
+     * @param key Lower bound of the values.
+     * @param inclusive Whether space marines with the bound value are taken too.
+     * @return Space marines in the order of their values, equal values in the order of the collection.
+     */
+    public List<SpaceMarine> tail(K key, boolean inclusive) {
+        return collect(sortedBuckets.tailMap(key, inclusive).values());
+    }
+
+    /**
+     * Takes the space marines with values less than the given one.
+     *
+     * @param key Upper bound of the values.
+     * @param inclusive Whether space marines with the bound value are taken too.
+     * @return Space marines in the order of their values, equal values in the order of the collection.
+     */
+    public List<SpaceMarine> head(K key, boolean inclusive) {
+        return collect(sortedBuckets.headMap(key, inclusive).values());
+    }
+}